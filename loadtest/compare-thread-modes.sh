@@ -0,0 +1,19 @@
+#!/bin/sh
+# Compares platform-thread and virtual-thread request handling with the load-test harness (src/loadtest), running the
+# read-only scenario against the app started in-process on H2. Further harness options are passed through, e.g. to use
+# a local Postgres instead: --app.spring.datasource.url=jdbc:postgresql://localhost:5432/postgres
+# --app.spring.datasource.driverClassName=org.postgresql.Driver --app.spring.datasource.username=postgres
+# --app.spring.datasource.password=password
+# Usage: loadtest/compare-thread-modes.sh [threads] [duration] [harness options...]
+set -eu
+
+THREADS=${1:-400}
+DURATION=${2:-30s}
+[ $# -gt 0 ] && shift
+[ $# -gt 0 ] && shift
+
+for mode in false true; do
+  echo "spring.threads.virtual.enabled=$mode"
+  ./gradlew -q loadtest -PloadtestArgs="--scenario=read-only --threads=$THREADS --duration=$DURATION \
+--out=build/loadtest/virtual-$mode --app.spring.threads.virtual.enabled=$mode $*"
+done
@@ -0,0 +1,65 @@
+package com.example.Recipes.DB.business;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Cost of authenticating one request: HTTP Basic with a full password check, HTTP Basic answered by the credentials
+// cache, and a bearer token. User lookup is in memory, so only the authentication work itself is measured.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthenticationBenchmark {
+    private static final String EMAIL = "bench@test.com";
+    private static final String PASSWORD = "password1";
+
+    private AuthenticationProvider basic;
+    private AuthenticationProvider cachedBasic;
+    private TokenService tokenService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        PasswordEncoder passwordEncoder = new PasswordConfig().passwordEncoder("bcrypt", 10, 310000, 16384, 2);
+        DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider();
+        daoAuthenticationProvider.setUserDetailsService(new InMemoryUserDetailsManager(
+                User.withUsername(EMAIL).password(passwordEncoder.encode(PASSWORD)).build()));
+        daoAuthenticationProvider.setPasswordEncoder(passwordEncoder);
+        basic = daoAuthenticationProvider;
+        cachedBasic = new CachingAuthenticationProvider(daoAuthenticationProvider,
+                new AuthenticationCache(Duration.ofHours(1), 10000));
+        cachedBasic.authenticate(credentials());
+        tokenService = new TokenService(Duration.ofHours(1), "");
+        token = tokenService.issue(EMAIL).token();
+    }
+
+    private static Authentication credentials() {
+        return UsernamePasswordAuthenticationToken.unauthenticated(EMAIL, PASSWORD);
+    }
+
+    @Benchmark
+    public Authentication basic() {
+        return basic.authenticate(credentials());
+    }
+
+    @Benchmark
+    public Authentication cachedBasic() {
+        return cachedBasic.authenticate(credentials());
+    }
+
+    @Benchmark
+    public String bearerToken() {
+        return tokenService.verify(token);
+    }
+}
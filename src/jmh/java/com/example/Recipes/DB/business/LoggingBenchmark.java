@@ -0,0 +1,122 @@
+package com.example.Recipes.DB.business;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.SimpleFormatter;
+import java.util.logging.StreamHandler;
+
+import static com.example.Recipes.DB.business.SamplingTurboFilter.SAMPLED;
+
+// Cost of one per-request log line on the calling thread: java.util.logging with string concatenation (as before)
+// versus SLF4J/Logback written directly, through the async appender and sampled; output goes to a null stream.
+// Run with -PjmhProfilers=gc to see the bytes allocated per call. With the async appender the queue fills up during
+// a run, so it measures what a request pays while logging can't keep up
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggingBenchmark {
+    private static final String CATEGORY = "Beverage";
+
+    private java.util.logging.Logger julLogger;
+    private java.util.logging.Logger julDisabledLogger;
+    private LoggerContext context;
+    private Logger syncLogger;
+    private Logger asyncLogger;
+    private Logger disabledLogger;
+    private long id;
+
+    @Setup
+    public void setUp() {
+        StreamHandler handler = new StreamHandler(OutputStream.nullOutputStream(), new SimpleFormatter());
+        julLogger = java.util.logging.Logger.getLogger("benchmark.jul");
+        julLogger.setUseParentHandlers(false);
+        julLogger.addHandler(handler);
+        julDisabledLogger = java.util.logging.Logger.getLogger("benchmark.jul.disabled");
+        julDisabledLogger.setLevel(java.util.logging.Level.WARNING);
+
+        context = new LoggerContext();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d %5p [%t] %logger : %m%n");
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> output = new OutputStreamAppender<>();
+        output.setContext(context);
+        output.setEncoder(encoder);
+        output.setOutputStream(OutputStream.nullOutputStream());
+        output.start();
+        AsyncAppender async = new AsyncAppender();
+        async.setContext(context);
+        async.setQueueSize(8192);
+        async.setNeverBlock(true);
+        async.addAppender(output);
+        async.start();
+        SamplingTurboFilter samplingTurboFilter = new SamplingTurboFilter();
+        samplingTurboFilter.setRate(10);
+        samplingTurboFilter.setContext(context);
+        samplingTurboFilter.start();
+        context.addTurboFilter(samplingTurboFilter);
+
+        syncLogger = context.getLogger("benchmark.sync");
+        syncLogger.setAdditive(false);
+        syncLogger.setLevel(Level.INFO);
+        syncLogger.addAppender(output);
+        asyncLogger = context.getLogger("benchmark.async");
+        asyncLogger.setAdditive(false);
+        asyncLogger.setLevel(Level.INFO);
+        asyncLogger.addAppender(async);
+        disabledLogger = context.getLogger("benchmark.disabled");
+        disabledLogger.setLevel(Level.WARN);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.stop();
+    }
+
+    @Benchmark
+    public void julConcatenation() {
+        julLogger.info("Searching for page of " + 20 + " (criterion=CATEGORY, search='" + CATEGORY + "', cursor=" +
+                id++ + ").");
+    }
+
+    @Benchmark
+    public void slf4jSync() {
+        syncLogger.info("Searching for page of {} (criterion=CATEGORY, search='{}', cursor={}).", 20, CATEGORY, id++);
+    }
+
+    @Benchmark
+    public void slf4jAsync() {
+        asyncLogger.info("Searching for page of {} (criterion=CATEGORY, search='{}', cursor={}).", 20, CATEGORY, id++);
+    }
+
+    @Benchmark
+    public void slf4jAsyncSampled() {
+        asyncLogger.info(SAMPLED, "Searching for page of {} (criterion=CATEGORY, search='{}', cursor={}).", 20,
+                CATEGORY, id++);
+    }
+
+    // Level disabled: concatenation still builds the message, a parameterized call returns before that
+    @Benchmark
+    public void julConcatenationDisabled() {
+        julDisabledLogger.info("Searching for page of " + 20 + " (criterion=CATEGORY, search='" + CATEGORY +
+                "', cursor=" + id++ + ").");
+    }
+
+    @Benchmark
+    public void slf4jDisabled() {
+        disabledLogger.info("Searching for page of {} (criterion=CATEGORY, search='{}', cursor={}).", 20, CATEGORY,
+                id++);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.Recipes.DB.business;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+// Time to verify a password on login with each supported algorithm at its default cost, i.e. the CPU that HTTP Basic
+// spends per request on a credentials cache miss
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+    @Param({"bcrypt", "pbkdf2", "argon2"})
+    String algorithm;
+
+    @Param({"10"})
+    int bcryptStrength;
+
+    private PasswordEncoder passwordEncoder;
+    private String encoded;
+
+    @Setup
+    public void setUp() {
+        passwordEncoder = new PasswordConfig().passwordEncoder(algorithm, bcryptStrength, 310000, 16384, 2);
+        encoded = passwordEncoder.encode("password1");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return passwordEncoder.matches("password1", encoded);
+    }
+}
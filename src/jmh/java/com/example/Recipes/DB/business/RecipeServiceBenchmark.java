@@ -0,0 +1,117 @@
+package com.example.Recipes.DB.business;
+
+import com.example.Recipes.DB.RecipesDbApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// RecipeService reads against an embedded H2 database of growing size, with the recipe and search caches turned off
+// so that every call reaches the database. Categories hold 50 recipes whatever the table size, so category searches
+// should stay flat while name searches (LIKE '%x%') grow with the table.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecipeServiceBenchmark {
+    private static final int RECIPES_PER_CATEGORY = 50;
+    private static final int BATCH_SIZE = 10_000;
+
+    @Param({"1000", "100000", "1000000"})
+    int tableSize;
+
+    private ConfigurableApplicationContext context;
+    private RecipeService recipeService;
+
+    @Setup
+    public void setUp() {
+        // As command line arguments, defaults from SpringApplicationBuilder.properties() lose to application.properties
+        context = new SpringApplicationBuilder(RecipesDbApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:service-bench;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driverClassName=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.cache.type=none",
+                "--recipes.search.cache.maximum-size=0",
+                "--recipes.search.index.enabled=false",
+                "--logging.level.root=warn");
+        recipeService = context.getBean(RecipeService.class);
+        insertRecipes(context.getBean(JdbcTemplate.class));
+    }
+
+    private void insertRecipes(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("insert into app_user (email, password) values ('bench@test.com', 'password1')");
+        jdbcTemplate.update("insert into ingredient (name) values ('fresh mint'), ('sugar')");
+        Timestamp base = Timestamp.valueOf(LocalDateTime.of(2023, 1, 1, 12, 0));
+        for (int start = 0; start < tableSize; start += BATCH_SIZE) {
+            List<Object[]> recipes = new ArrayList<>();
+            List<Object[]> spices = new ArrayList<>();
+            List<Object[]> ingredients = new ArrayList<>();
+            List<Object[]> directions = new ArrayList<>();
+            for (int i = start; i < Math.min(start + BATCH_SIZE, tableSize); i++) {
+                long id = i + 1;
+                recipes.add(new Object[]{id, "Recipe " + i, "Category " + i / RECIPES_PER_CATEGORY,
+                        new Timestamp(base.getTime() + i * 1000L), "Tasty and quick", "bench@test.com"});
+                // One ingredient per category, so that as many recipes use it as are in a category
+                if (i % RECIPES_PER_CATEGORY == 0) {
+                    spices.add(new Object[]{"spice " + i / RECIPES_PER_CATEGORY});
+                }
+                ingredients.add(new Object[]{id, 0, "fresh mint"});
+                ingredients.add(new Object[]{id, 1, "sugar"});
+                ingredients.add(new Object[]{id, 2, "spice " + i / RECIPES_PER_CATEGORY});
+                directions.add(new Object[]{id, "Stir well"});
+            }
+            jdbcTemplate.batchUpdate("insert into recipe (id, name, category, date, description, added_by) " +
+                    "values (?, ?, ?, ?, ?, ?)", recipes);
+            jdbcTemplate.batchUpdate("insert into ingredient (name) values (?)", spices);
+            jdbcTemplate.batchUpdate("insert into recipe_ingredient (recipe_id, position, ingredient_id) " +
+                    "select ?, ?, id from ingredient where name = ?", ingredients);
+            jdbcTemplate.batchUpdate("insert into recipe_directions (recipe_id, directions) values (?, ?)", directions);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Recipe get() {
+        return recipeService.get(ThreadLocalRandom.current().nextLong(tableSize) + 1);
+    }
+
+    @Benchmark
+    public List<Recipe> searchByCategory() {
+        int category = ThreadLocalRandom.current().nextInt(tableSize / RECIPES_PER_CATEGORY);
+        return recipeService.search("category " + category, RecipeService.SearchCriterion.CATEGORY);
+    }
+
+    // Same recipes as searchByCategory without loading ingredients and directions, as for ?fields=
+    @Benchmark
+    public List<RecipeSummary> searchSummariesByCategory() {
+        int category = ThreadLocalRandom.current().nextInt(tableSize / RECIPES_PER_CATEGORY);
+        return recipeService.searchSummaries("category " + category, RecipeService.SearchCriterion.CATEGORY);
+    }
+
+    // As many recipes as searchByCategory, found through the ingredient_id index of the join table
+    @Benchmark
+    public List<Recipe> searchUsingIngredient() {
+        int category = ThreadLocalRandom.current().nextInt(tableSize / RECIPES_PER_CATEGORY);
+        return recipeService.search("spice " + category, RecipeService.SearchCriterion.USES_INGREDIENT);
+    }
+
+    @Benchmark
+    public List<Recipe> searchByName() {
+        return recipeService.search("recipe " + ThreadLocalRandom.current().nextInt(tableSize), RecipeService.SearchCriterion.NAME);
+    }
+}
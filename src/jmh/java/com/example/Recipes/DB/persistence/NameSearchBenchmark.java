@@ -0,0 +1,59 @@
+package com.example.Recipes.DB.persistence;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Latency of a "name contains" search against table size: the in-memory trigram index versus the linear scan that
+// LIKE '%x%' turns into without a trigram index
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NameSearchBenchmark {
+    private static final String[] WORDS = {"mint", "tea", "julep", "lemon", "cake", "chocolate", "curry", "garlic",
+            "basil", "pesto", "soup", "bread", "salad", "ginger", "honey", "lassi", "mango", "pasta", "tomato", "rice"};
+
+    @Param({"1000", "100000", "1000000"})
+    int tableSize;
+
+    @Param({"julep", "chocolate cake"})
+    String search;
+
+    private final List<String> names = new ArrayList<>();
+    private final TrigramIndex trigramIndex = new TrigramIndex();
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < tableSize; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            names.add(name);
+            trigramIndex.put(i, name);
+        }
+    }
+
+    @Benchmark
+    public void trigramIndex(Blackhole blackhole) {
+        blackhole.consume(trigramIndex.search(search));
+    }
+
+    @Benchmark
+    public void linearScan(Blackhole blackhole) {
+        String term = search.toLowerCase(Locale.ROOT);
+        List<Integer> matches = new ArrayList<>();
+        for (int i = 0; i < names.size(); i++) {
+            if (names.get(i).toLowerCase(Locale.ROOT).contains(term)) {
+                matches.add(i);
+            }
+        }
+        blackhole.consume(matches);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.Recipes.DB.persistence;
+
+import com.example.Recipes.DB.RecipesDbApplication;
+import com.example.Recipes.DB.business.Recipe;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.hibernate.Hibernate;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Reading and serialising one category of recipes through the servlet variant's JPA path versus the reactive
+// variant's R2DBC path, against the same in-memory H2 database; run with -t to compare under concurrency
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReactiveReadBenchmark {
+    @Param({"10", "100", "1000"})
+    int recipesPerCategory;
+
+    private ConfigurableApplicationContext context;
+    private RecipeRepository recipeRepository;
+    private ReactiveRecipeRepository reactiveRecipeRepository;
+    private TransactionTemplate transactionTemplate;
+    private ObjectWriter objectWriter;
+
+    @Setup
+    public void setUp() {
+        // As command line arguments, defaults from SpringApplicationBuilder.properties() lose to application.properties
+        context = new SpringApplicationBuilder(RecipesDbApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driverClassName=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--recipes.reactive.enabled=true",
+                "--recipes.reactive.url=r2dbc:h2:mem:///bench;DB_CLOSE_DELAY=-1",
+                "--recipes.reactive.username=sa",
+                "--recipes.search.index.enabled=false",
+                "--logging.level.root=warn");
+        recipeRepository = context.getBean(RecipeRepository.class);
+        reactiveRecipeRepository = context.getBean(ReactiveRecipeRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(true);
+        objectWriter = context.getBean(ObjectMapper.class).writer();
+        insertRecipes(context.getBean(JdbcTemplate.class));
+    }
+
+    private void insertRecipes(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("insert into app_user (email, password) values ('bench@test.com', 'password1')");
+        for (int j = 0; j < 8; j++) {
+            jdbcTemplate.update("insert into ingredient (name) values (?)", "ingredient " + j);
+        }
+        Timestamp base = Timestamp.valueOf(LocalDateTime.of(2023, 1, 1, 12, 0));
+        List<Object[]> recipes = new ArrayList<>();
+        List<Object[]> ingredients = new ArrayList<>();
+        List<Object[]> directions = new ArrayList<>();
+        for (int i = 0; i < recipesPerCategory * 10; i++) {
+            long id = i + 1;
+            recipes.add(new Object[]{id, "Recipe " + i, "Category " + i % 10,
+                    new Timestamp(base.getTime() + i * 1000L), "Tasty and quick", "bench@test.com"});
+            for (int j = 0; j < 8; j++) {
+                ingredients.add(new Object[]{id, j, "ingredient " + j});
+            }
+            for (int j = 0; j < 5; j++) {
+                directions.add(new Object[]{id, "Do step " + j + " carefully"});
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into recipe (id, name, category, date, description, added_by) " +
+                "values (?, ?, ?, ?, ?, ?)", recipes);
+        jdbcTemplate.batchUpdate("insert into recipe_ingredient (recipe_id, position, ingredient_id) " +
+                "select ?, ?, id from ingredient where name = ?", ingredients);
+        jdbcTemplate.batchUpdate("insert into recipe_directions (recipe_id, directions) values (?, ?)", directions);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void jpa(Blackhole blackhole) {
+        List<Recipe> recipes = transactionTemplate.execute(status -> {
+            List<Recipe> found = recipeRepository.findByCategoryIgnoreCaseOrderByDateDesc("category 3");
+            found.forEach(recipe -> Hibernate.initialize(recipe.getIngredients()));
+            found.forEach(recipe -> Hibernate.initialize(recipe.getDirections()));
+            return found;
+        });
+        blackhole.consume(write(recipes));
+    }
+
+    @Benchmark
+    public void r2dbc(Blackhole blackhole) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        reactiveRecipeRepository.findByCategory("category 3")
+                .doOnNext(recipe -> out.writeBytes(write(recipe)))
+                .blockLast();
+        blackhole.consume(out.toByteArray());
+    }
+
+    private byte[] write(Object value) {
+        try {
+            return objectWriter.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
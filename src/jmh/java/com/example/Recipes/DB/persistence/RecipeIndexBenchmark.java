@@ -0,0 +1,64 @@
+package com.example.Recipes.DB.persistence;
+
+import com.example.Recipes.DB.business.Recipe;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Ingredient and full-text searches on the in-memory index against the number of recipes, right after a rebuild and
+// after every recipe has been updated a few times, which leaves tombstones until the postings are compacted
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecipeIndexBenchmark {
+    private static final String[] INGREDIENTS = {"mint", "sugar", "lemon", "garlic", "basil", "pine nuts", "butter",
+            "flour", "rice", "ginger", "honey", "mango", "tomato", "onion", "chilli", "yoghurt", "cumin", "parsley"};
+    private static final String[] WORDS = {"tea", "julep", "cake", "curry", "pesto", "soup", "bread", "salad",
+            "lassi", "pasta", "stew", "pie"};
+
+    @Param({"1000", "100000", "1000000"})
+    int recipes;
+
+    @Param({"0", "3"})
+    int updates;
+
+    @Param({"garlic basil", "mint or ginger honey"})
+    String query;
+
+    private RecipeIndex recipeIndex;
+
+    @Setup
+    public void setUp() {
+        recipeIndex = new RecipeIndex(null, null, true);
+        Random random = new Random(42);
+        for (int round = 0; round <= updates; round++) {
+            for (int i = 0; i < recipes; i++) {
+                recipeIndex.put(recipe(i, random));
+            }
+        }
+    }
+
+    @Benchmark
+    public void ingredientSearch(Blackhole blackhole) {
+        blackhole.consume(recipeIndex.search(query, RecipeIndex.Field.INGREDIENTS));
+    }
+
+    @Benchmark
+    public void textSearch(Blackhole blackhole) {
+        blackhole.consume(recipeIndex.search(query, null));
+    }
+
+    private static Recipe recipe(long id, Random random) {
+        String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+        List<String> ingredients = random.ints(4, 0, INGREDIENTS.length).mapToObj(i -> INGREDIENTS[i]).toList();
+        return new Recipe(id, name, "Category", LocalDateTime.now(), "Quick and tasty " + name, ingredients,
+                List.of("Mix the " + ingredients.get(0) + " and " + ingredients.get(1), "Serve"), null);
+    }
+}
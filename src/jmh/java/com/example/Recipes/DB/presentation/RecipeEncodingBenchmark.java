@@ -0,0 +1,102 @@
+package com.example.Recipes.DB.presentation;
+
+import com.example.Recipes.DB.business.Recipe;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Serialising a search result in each format the API can answer with, with and without gzip as applied by Tomcat.
+// Recipes vary in length and some have long directions; the size of each encoding is printed once per fork, as JMH
+// only measures time
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecipeEncodingBenchmark {
+    private static final TypeReference<List<Recipe>> RECIPE_LIST = new TypeReference<>() { };
+    private static final String[] INGREDIENTS = {"fresh mint leaves", "1 tbsp sugar", "1.5 oz bourbon",
+            "crushed ice", "2 cups plain flour", "3 large eggs", "250 ml whole milk", "1 pinch of salt",
+            "zest of one lemon", "100 g unsalted butter, softened", "2 cloves of garlic, finely chopped"};
+    private static final String[] DIRECTIONS = {"Preheat the oven to 180 degrees and line a tray with baking paper",
+            "Whisk the eggs and sugar until pale and doubled in volume, about five minutes",
+            "Fold in the flour in three additions without knocking out the air",
+            "Muddle the mint and sugar in a glass", "Stir until the glass is frosted",
+            "Simmer for twenty minutes, stirring now and then so that nothing catches on the bottom of the pan",
+            "Season to taste and leave to rest for ten minutes before serving"};
+
+    @Param({"json", "cbor", "smile"})
+    String format;
+
+    @Param({"20"})
+    int searchResultSize;
+
+    private ObjectMapper objectMapper;
+    private List<Recipe> recipes;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = switch (format) {
+            case "cbor" -> Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+            case "smile" -> Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+        Random random = new Random(42);
+        recipes = new ArrayList<>();
+        for (int i = 0; i < searchResultSize; i++) {
+            recipes.add(recipe(i, random));
+        }
+        encoded = objectMapper.writeValueAsBytes(recipes);
+        System.out.printf("%n%s: %d bytes, %d bytes gzipped%n", format, encoded.length, writeGzipped().length);
+    }
+
+    private static Recipe recipe(long id, Random random) {
+        List<String> ingredients = new ArrayList<>();
+        int numberOfIngredients = 3 + random.nextInt(10);
+        for (int i = 0; i < numberOfIngredients; i++) {
+            ingredients.add(INGREDIENTS[random.nextInt(INGREDIENTS.length)]);
+        }
+        // Mostly short recipes, every fifth one with a long list of directions
+        List<String> directions = new ArrayList<>();
+        int numberOfDirections = id % 5 == 0 ? 25 : 2 + random.nextInt(6);
+        for (int i = 0; i < numberOfDirections; i++) {
+            directions.add(DIRECTIONS[random.nextInt(DIRECTIONS.length)]);
+        }
+        return new Recipe(id, "Recipe " + id, "Category " + random.nextInt(10),
+                LocalDateTime.of(2023, 1, 1, 12, 0).plusMinutes(id),
+                "Light, aromatic and refreshing, ideal for hot summer days", ingredients, directions, null);
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        return objectMapper.writeValueAsBytes(recipes);
+    }
+
+    @Benchmark
+    public byte[] writeGzipped() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(gzip, recipes);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public List<Recipe> read() throws IOException {
+        return objectMapper.readValue(encoded, RECIPE_LIST);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.Recipes.DB.presentation;
+
+import com.example.Recipes.DB.business.Recipe;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Jackson cost of the recipe JSON the API reads and writes: a single recipe (get, create) and a list of them (search)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecipeJsonBenchmark {
+    @Param({"20"})
+    int searchResultSize;
+
+    private ObjectMapper objectMapper;
+    private Recipe recipe;
+    private List<Recipe> recipes;
+    private byte[] recipeJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        recipe = recipe(1);
+        recipes = new ArrayList<>();
+        for (int i = 0; i < searchResultSize; i++) {
+            recipes.add(recipe(i));
+        }
+        recipeJson = objectMapper.writeValueAsBytes(recipe);
+    }
+
+    private static Recipe recipe(long id) {
+        return new Recipe(id, "Mint Julep " + id, "Beverage", LocalDateTime.of(2023, 1, 1, 12, 0),
+                "Light, aromatic and refreshing beverage, ideal for hot summer days",
+                new ArrayList<>(List.of("3 fresh mint leaves", "1 tbsp sugar", "1.5 oz bourbon", "crushed ice")),
+                new ArrayList<>(List.of("Muddle mint and sugar in a glass", "Add bourbon and fill with crushed ice",
+                        "Stir until the glass is frosted")),
+                null);
+    }
+
+    @Benchmark
+    public byte[] writeRecipe() throws IOException {
+        return objectMapper.writeValueAsBytes(recipe);
+    }
+
+    @Benchmark
+    public byte[] writeSearchResult() throws IOException {
+        return objectMapper.writeValueAsBytes(recipes);
+    }
+
+    @Benchmark
+    public Recipe readRecipe() throws IOException {
+        return objectMapper.readValue(recipeJson, Recipe.class);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.Recipes.DB.presentation;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Working out which single search criterion a /search request uses, done on every search request
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchResolutionBenchmark {
+    private final RecipeController recipeController = new RecipeController(null, null, null, null);
+
+    @Benchmark
+    public RecipeController.Search category() {
+        return recipeController.resolveSearch("Beverage", null, null, null);
+    }
+
+    @Benchmark
+    public RecipeController.Search text() {
+        return recipeController.resolveSearch(null, "", null, "Mint or Lemon");
+    }
+
+    @Benchmark
+    public RecipeController.Search ambiguous() {
+        return recipeController.resolveSearch("Beverage", "Mint", null, null);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.Recipes.DB.loadtest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Reproducible synthetic users and recipes: the same seed always gives the same dataset. Not thread-safe, each thread
+// gets its own generator.
+public class DatasetGenerator {
+    private static final String[] CATEGORIES = {"Beverage", "Breakfast", "Dessert", "Main", "Salad", "Side", "Snack",
+            "Soup", "Starter", "Bread", "Sauce", "Vegan"};
+    private static final String[] ADJECTIVES = {"Fresh", "Spicy", "Creamy", "Crispy", "Classic", "Smoky", "Zesty",
+            "Hearty", "Light", "Rustic", "Sweet", "Tangy", "Golden", "Summer", "Winter"};
+    private static final String[] DISHES = {"Mint Tea", "Julep", "Pancakes", "Omelette", "Brownies", "Cheesecake",
+            "Curry", "Risotto", "Lasagne", "Caesar Salad", "Coleslaw", "Tomato Soup", "Ramen", "Focaccia", "Pesto",
+            "Lemonade", "Smoothie", "Granola", "Stir Fry", "Tacos", "Chili", "Falafel", "Hummus", "Flatbread"};
+    private static final String[] INGREDIENTS = {"fresh mint leaves", "sugar", "bourbon", "crushed ice", "flour",
+            "eggs", "whole milk", "butter", "garlic", "basil", "olive oil", "parmesan", "tomatoes", "onion", "rice",
+            "coconut milk", "ginger", "lemon juice", "honey", "chickpeas", "cumin", "salt", "black pepper", "yeast"};
+    private static final String[] STEPS = {"Preheat the oven", "Chop the vegetables", "Whisk everything together",
+            "Simmer for 20 minutes", "Season to taste", "Bring to the boil", "Fold in gently", "Rest for 10 minutes",
+            "Bake until golden", "Serve immediately", "Blend until smooth", "Chill before serving"};
+
+    private final Random random;
+
+    public DatasetGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public static String email(int user) {
+        return "user" + user + "@loadtest.example";
+    }
+
+    public static String password(int user) {
+        return "loadtest-password-" + user;
+    }
+
+    public Map<String, Object> recipe() {
+        Map<String, Object> recipe = new LinkedHashMap<>();
+        recipe.put("name", pick(ADJECTIVES) + " " + pick(DISHES));
+        recipe.put("category", pick(CATEGORIES));
+        recipe.put("description", "A " + pick(ADJECTIVES).toLowerCase() + " recipe, ready in " +
+                (10 + random.nextInt(80)) + " minutes.");
+        recipe.put("ingredients", pickSome(INGREDIENTS, 3, 10));
+        recipe.put("directions", pickSome(STEPS, 2, 6));
+        return recipe;
+    }
+
+    public String category() {
+        return pick(CATEGORIES);
+    }
+
+    // A word that matches a realistic share of recipe names
+    public String nameTerm() {
+        String dish = pick(DISHES);
+        return dish.substring(0, Math.min(dish.length(), 4 + random.nextInt(3)));
+    }
+
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private List<String> pickSome(String[] values, int min, int max) {
+        int count = min + random.nextInt(max - min + 1);
+        List<String> picked = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            picked.add(pick(values));
+        }
+        return picked;
+    }
+}
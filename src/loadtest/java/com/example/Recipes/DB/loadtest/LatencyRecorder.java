@@ -0,0 +1,64 @@
+package com.example.Recipes.DB.loadtest;
+
+import com.example.Recipes.DB.loadtest.Scenario.Operation;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Latencies of one worker thread, kept per operation without locking; merged into a report once the run is over
+public class LatencyRecorder {
+    private final Map<Operation, long[]> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, Integer> counts = new EnumMap<>(Operation.class);
+    private final Map<Operation, Integer> errors = new EnumMap<>(Operation.class);
+
+    public void record(Operation operation, long nanos, boolean success) {
+        long[] values = latencies.computeIfAbsent(operation, key -> new long[1024]);
+        int count = counts.getOrDefault(operation, 0);
+        if (count == values.length) {
+            values = Arrays.copyOf(values, count * 2);
+            latencies.put(operation, values);
+        }
+        values[count] = nanos;
+        counts.put(operation, count + 1);
+        if (!success) {
+            errors.merge(operation, 1, Integer::sum);
+        }
+    }
+
+    public record Result(String endpoint, int requests, int errors, double throughput,
+                         double p50Millis, double p99Millis, double p999Millis) { }
+
+    public static Map<Operation, Result> merge(List<LatencyRecorder> recorders, double seconds) {
+        Map<Operation, Result> results = new LinkedHashMap<>();
+        for (Operation operation : Operation.values()) {
+            int total = recorders.stream().mapToInt(recorder -> recorder.counts.getOrDefault(operation, 0)).sum();
+            if (total == 0) {
+                continue;
+            }
+            long[] all = new long[total];
+            int offset = 0;
+            int errors = 0;
+            for (LatencyRecorder recorder : recorders) {
+                int count = recorder.counts.getOrDefault(operation, 0);
+                if (count > 0) {
+                    System.arraycopy(recorder.latencies.get(operation), 0, all, offset, count);
+                    offset += count;
+                }
+                errors += recorder.errors.getOrDefault(operation, 0);
+            }
+            Arrays.sort(all);
+            results.put(operation, new Result(operation.getEndpoint(), total, errors, total / seconds,
+                    percentile(all, 0.50), percentile(all, 0.99), percentile(all, 0.999)));
+        }
+        return results;
+    }
+
+    // Nearest-rank percentile of sorted latencies, in milliseconds
+    static double percentile(long[] sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile * sorted.length);
+        return sorted[Math.max(rank - 1, 0)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,310 @@
+package com.example.Recipes.DB.loadtest;
+
+import com.example.Recipes.DB.RecipesDbApplication;
+import com.example.Recipes.DB.loadtest.LatencyRecorder.Result;
+import com.example.Recipes.DB.loadtest.Scenario.Operation;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Closed-loop load test of the recipe API: seeds users and recipes, then runs a scenario's mix of operations from a
+// fixed number of threads and reports throughput and p50/p99/p999 latency per endpoint. Without --url the app is
+// started in this JVM on an in-memory H2 database, so nothing but the JDK and the app's own classes is needed.
+//
+// Options (all --key=value): url, users (20), recipes (2000), threads (16), warmup (10s), duration (60s),
+// scenario (mixed, read-only, write-heavy or a properties file), seed (42), auth (token or basic), out (build/loadtest),
+// and app.<property> to set any property of the in-process app, e.g. --app.spring.threads.virtual.enabled=true
+public class LoadTest {
+    private final Map<String, String> options;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final RecipePool recipePool = new RecipePool();
+    private String baseUrl;
+    private String[] authorizations;
+
+    private LoadTest(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value but got '" + arg + "'.");
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        new LoadTest(options).run();
+    }
+
+    private void run() throws Exception {
+        Scenario scenario = Scenario.load(option("scenario", "mixed"));
+        int users = Integer.parseInt(option("users", "20"));
+        int recipes = Integer.parseInt(option("recipes", "2000"));
+        int threads = Integer.parseInt(option("threads", "16"));
+        long seed = Long.parseLong(option("seed", "42"));
+        Duration warmup = duration(option("warmup", "10s"));
+        Duration duration = duration(option("duration", "60s"));
+
+        ConfigurableApplicationContext app = options.containsKey("url") ? null : startApp();
+        try {
+            baseUrl = app == null ? option("url", null) : "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+            System.out.println("Seeding " + users + " users and " + recipes + " recipes at " + baseUrl + "...");
+            seed(users, recipes, threads, seed);
+            System.out.println("Running scenario '" + scenario.getName() + "' with " + threads + " threads for " +
+                    warmup.toSeconds() + "s warm-up and " + duration.toSeconds() + "s measurement...");
+            Map<Operation, Result> results = runScenario(scenario, threads, seed, warmup, duration);
+            report(results, scenario, users, recipes, threads, duration);
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+        }
+    }
+
+    private ConfigurableApplicationContext startApp() {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("spring.datasource.url", "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1");
+        properties.put("spring.datasource.driverClassName", "org.h2.Driver");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("logging.level.root", "warn");
+        options.forEach((key, value) -> {
+            if (key.startsWith("app.")) {
+                properties.put(key.substring("app.".length()), value);
+            }
+        });
+        // As command line arguments so that they win over application.properties
+        String[] args = properties.entrySet().stream()
+                .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(RecipesDbApplication.class).run(args);
+    }
+
+    private void seed(int users, int recipes, int threads, long seed) throws Exception {
+        authorizations = new String[users];
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int user = 0; user < users; user++) {
+                int index = user;
+                futures.add(executor.submit(() -> {
+                    authorizations[index] = register(index);
+                    return null;
+                }));
+            }
+            await(futures);
+            for (int thread = 0; thread < threads; thread++) {
+                DatasetGenerator generator = new DatasetGenerator(seed * 31 + thread);
+                int count = recipes / threads + (thread < recipes % threads ? 1 : 0);
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < count; i++) {
+                        int user = generator.nextInt(users);
+                        HttpResponse<String> response = send("POST", "/api/recipe/new", generator.recipe(), user);
+                        if (response.statusCode() != 200) {
+                            throw new IllegalStateException("Seeding a recipe failed with " + response.statusCode() + ".");
+                        }
+                        recipePool.add(objectMapper.readTree(response.body()).get("id").asLong(), user);
+                    }
+                    return null;
+                }));
+            }
+            await(futures);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // Registers the user unless it already exists (e.g. from an earlier run against Postgres) and returns the
+    // Authorization header it will use
+    private String register(int user) throws Exception {
+        Map<String, String> credentials = Map.of("email", DatasetGenerator.email(user), "password", DatasetGenerator.password(user));
+        HttpResponse<String> response;
+        while ((response = send("POST", "/api/register", credentials, null)).statusCode() == 429) {
+            Thread.sleep(1000);
+        }
+        String basic = "Basic " + Base64.getEncoder().encodeToString(
+                (DatasetGenerator.email(user) + ":" + DatasetGenerator.password(user)).getBytes(StandardCharsets.UTF_8));
+        if (option("auth", "token").equals("basic")) {
+            return basic;
+        }
+        response = httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/login"))
+                .header("Authorization", basic)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Logging in user " + user + " failed with " + response.statusCode() + ".");
+        }
+        return "Bearer " + objectMapper.readTree(response.body()).get("token").asText();
+    }
+
+    private Map<Operation, Result> runScenario(Scenario scenario, int threads, long seed, Duration warmup,
+                                               Duration duration) throws Exception {
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        List<LatencyRecorder> recorders = new ArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int thread = 0; thread < threads; thread++) {
+                LatencyRecorder recorder = new LatencyRecorder();
+                recorders.add(recorder);
+                Random random = new Random(seed + thread);
+                DatasetGenerator generator = new DatasetGenerator(seed * 17 + thread);
+                futures.add(executor.submit(() -> {
+                    long now;
+                    while ((now = System.nanoTime()) < end) {
+                        Operation operation = scenario.next(random);
+                        Integer status = perform(operation, random, generator);
+                        long elapsed = System.nanoTime() - now;
+                        if (status != null && now >= measureFrom) {
+                            recorder.record(operation, elapsed, status >= 200 && status < 300);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            await(futures);
+        } finally {
+            executor.shutdown();
+        }
+        return LatencyRecorder.merge(recorders, duration.toNanos() / 1e9);
+    }
+
+    // Returns the response status, or null if the operation couldn't run (e.g. nothing left to delete)
+    private Integer perform(Operation operation, Random random, DatasetGenerator generator) throws Exception {
+        int user = random.nextInt(authorizations.length);
+        return switch (operation) {
+            case GET -> {
+                long[] recipe = recipePool.any(random);
+                yield recipe == null ? null : send("GET", "/api/recipe/" + recipe[0], null, user).statusCode();
+            }
+            case SEARCH_CATEGORY -> send("GET", "/api/recipe/search?category=" + encode(generator.category()), null, user).statusCode();
+            case SEARCH_NAME -> send("GET", "/api/recipe/search?name=" + encode(generator.nameTerm()), null, user).statusCode();
+            case CREATE -> {
+                HttpResponse<String> response = send("POST", "/api/recipe/new", generator.recipe(), user);
+                if (response.statusCode() == 200) {
+                    recipePool.add(objectMapper.readTree(response.body()).get("id").asLong(), user);
+                }
+                yield response.statusCode();
+            }
+            case UPDATE -> {
+                long[] recipe = recipePool.any(random);
+                yield recipe == null ? null
+                        : send("PUT", "/api/recipe/" + recipe[0], generator.recipe(), (int) recipe[1]).statusCode();
+            }
+            case DELETE -> {
+                long[] recipe = recipePool.remove(random);
+                yield recipe == null ? null : send("DELETE", "/api/recipe/" + recipe[0], null, (int) recipe[1]).statusCode();
+            }
+        };
+    }
+
+    private HttpResponse<String> send(String method, String path, Object body, Integer user) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30));
+        if (user != null) {
+            request.header("Authorization", authorizations[user]);
+        }
+        if (body == null) {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        } else {
+            request.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private void report(Map<Operation, Result> results, Scenario scenario, int users, int recipes, int threads,
+                        Duration duration) throws IOException {
+        System.out.printf("%n%-36s %9s %7s %10s %9s %9s %9s%n", "endpoint", "requests", "errors", "req/s", "p50 ms",
+                "p99 ms", "p999 ms");
+        for (Result result : results.values()) {
+            System.out.printf("%-36s %9d %7d %10.1f %9.2f %9.2f %9.2f%n", result.endpoint(), result.requests(),
+                    result.errors(), result.throughput(), result.p50Millis(), result.p99Millis(), result.p999Millis());
+        }
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("scenario", scenario.getName());
+        summary.put("baseUrl", baseUrl);
+        summary.put("users", users);
+        summary.put("recipes", recipes);
+        summary.put("threads", threads);
+        summary.put("durationSeconds", duration.toSeconds());
+        summary.put("auth", option("auth", "token"));
+        summary.put("options", options);
+        summary.put("results", results);
+        Path out = Path.of(option("out", "build/loadtest"));
+        Files.createDirectories(out);
+        Path file = out.resolve(scenario.getName().replaceAll("[^A-Za-z0-9-]", "_") + "-" +
+                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), summary);
+        System.out.println("\nResults written to " + file);
+    }
+
+    private String option(String key, String defaultValue) {
+        return options.getOrDefault(key, defaultValue);
+    }
+
+    private static Duration duration(String value) {
+        return Duration.parse("PT" + value.toUpperCase());
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static void await(List<Future<?>> futures) throws Exception {
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        futures.clear();
+    }
+
+    // Recipes known to exist with their owners, so that updates and deletes are always made by the owner
+    private static class RecipePool {
+        private final List<long[]> recipes = new ArrayList<>();
+
+        synchronized void add(long id, int owner) {
+            recipes.add(new long[]{id, owner});
+        }
+
+        synchronized long[] any(Random random) {
+            return recipes.isEmpty() ? null : recipes.get(random.nextInt(recipes.size()));
+        }
+
+        synchronized long[] remove(Random random) {
+            if (recipes.isEmpty()) {
+                return null;
+            }
+            int index = random.nextInt(recipes.size());
+            long[] last = recipes.remove(recipes.size() - 1);
+            return index == recipes.size() ? last : recipes.set(index, last);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.Recipes.DB.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+
+// Relative weights of the operations a virtual user performs, read from scenarios/<name>.properties on the classpath or
+// from a properties file, e.g. get=60 and delete=3
+public class Scenario {
+    public enum Operation {
+        GET("get", "GET /api/recipe/{id}"),
+        SEARCH_CATEGORY("search-category", "GET /api/recipe/search?category="),
+        SEARCH_NAME("search-name", "GET /api/recipe/search?name="),
+        CREATE("create", "POST /api/recipe/new"),
+        UPDATE("update", "PUT /api/recipe/{id}"),
+        DELETE("delete", "DELETE /api/recipe/{id}");
+
+        private final String key;
+        private final String endpoint;
+
+        Operation(String key, String endpoint) {
+            this.key = key;
+            this.endpoint = endpoint;
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+    }
+
+    private final String name;
+    private final Map<Operation, Integer> weights;
+    private final int totalWeight;
+
+    private Scenario(String name, Map<Operation, Integer> weights) {
+        this.name = name;
+        this.weights = weights;
+        this.totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+        if (totalWeight <= 0) {
+            throw new IllegalArgumentException("Scenario '" + name + "' has no operations.");
+        }
+    }
+
+    public static Scenario load(String nameOrPath) throws IOException {
+        Properties properties = new Properties();
+        Path path = Path.of(nameOrPath);
+        if (Files.isRegularFile(path)) {
+            try (Reader reader = Files.newBufferedReader(path)) {
+                properties.load(reader);
+            }
+        } else {
+            try (InputStream in = Scenario.class.getResourceAsStream("/scenarios/" + nameOrPath + ".properties")) {
+                if (in == null) {
+                    throw new IllegalArgumentException("Unknown scenario '" + nameOrPath + "'.");
+                }
+                properties.load(in);
+            }
+        }
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            int weight = Integer.parseInt(properties.getProperty(operation.key, "0").trim());
+            if (weight > 0) {
+                weights.put(operation, weight);
+            }
+        }
+        return new Scenario(nameOrPath, weights);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Operation next(Random random) {
+        int value = random.nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> entry : weights.entrySet()) {
+            value -= entry.getValue();
+            if (value < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException();
+    }
+}
@@ -0,0 +1,3 @@
+package com.example.Recipes.DB.business;
+
+public record AppUserChangedEvent(String email) { }
@@ -1,42 +1,81 @@
 package com.example.Recipes.DB.business;
 
 import com.example.Recipes.DB.persistence.UserRepository;
-import com.example.Recipes.DB.presentation.RecipeController;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import java.util.List;
-import java.util.logging.Logger;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @Service
 @RequiredArgsConstructor
-public class AppUserService implements UserDetailsService {
+public class AppUserService implements UserDetailsService, UserDetailsPasswordService {
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
-    private final Logger LOGGER = Logger.getLogger(RecipeController.class.getName());
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final PasswordHasher passwordHasher;
+    private final Logger LOGGER = LoggerFactory.getLogger(AppUserService.class);
 
-    public boolean add(AppUser appUser) {
-        if (userRepository.existsById(appUser.getEmail())) {
-            LOGGER.warning("User not created, " + userRepository.findById(appUser.getEmail()) + " already exists.");
-            return false;
+    public enum RegistrationResult {
+        SUCCESS, ALREADY_EXISTS, OVERLOADED
+    }
+
+    // Hashing happens on the PasswordHasher pool, the caller's thread is free as soon as the password is queued
+    public CompletableFuture<RegistrationResult> add(AppUser appUser) {
+        CompletableFuture<String> hash;
+        try {
+            hash = passwordHasher.hash(appUser.getPassword());
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("User '{}' not created, too many registrations in progress.", appUser.getEmail());
+            return CompletableFuture.completedFuture(RegistrationResult.OVERLOADED);
+        }
+        return hash.thenApply(encodedPassword -> insert(appUser.getEmail(), encodedPassword));
+    }
+
+    private RegistrationResult insert(String email, String encodedPassword) {
+        try {
+            if (userRepository.insertIfAbsent(email, encodedPassword) == 0) {
+                LOGGER.warn("User '{}' not created, already exists.", email);
+                return RegistrationResult.ALREADY_EXISTS;
+            }
+        } catch (DataIntegrityViolationException e) {
+            // Lost a race against a concurrent registration for the same email
+            LOGGER.warn("User '{}' not created, already exists.", email);
+            return RegistrationResult.ALREADY_EXISTS;
         }
-        appUser.setPassword(passwordEncoder.encode(appUser.getPassword()));
-        userRepository.save(appUser);
-        LOGGER.info("Added: " + userRepository.findById(appUser.getEmail()) + " - total # users: " + userRepository.count() + ".");
-        return true;
+        applicationEventPublisher.publishEvent(new AppUserChangedEvent(email));
+        LOGGER.info("Added user '{}'.", email);
+        return RegistrationResult.SUCCESS;
     }
 
     public AppUser get(String email) {
         return userRepository.findById(email).orElseThrow(() -> new RuntimeException("Couldn't find user '" + email + "'."));
     }
 
+    public AppUser getReference(String email) {
+        return userRepository.getReferenceById(email);
+    }
+
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         AppUser appUser = userRepository.findById(email).orElseThrow(() -> new UsernameNotFoundException(email));
         return new org.springframework.security.core.userdetails.User(appUser.getEmail(), appUser.getPassword(), List.of());
     }
+
+    // Called after a successful login whose stored hash uses another algorithm or a lower cost than configured
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        if (userRepository.updatePassword(user.getUsername(), newPassword) > 0) {
+            LOGGER.info("Rehashed password of user '{}'.", user.getUsername());
+        }
+        return User.withUserDetails(user).password(newPassword).build();
+    }
 }
@@ -0,0 +1,141 @@
+package com.example.Recipes.DB.business;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Bounded, TTL-based cache of verified credentials, keyed by an HMAC of username and password with a per-process key
+// so that no plaintext (or reusable hash of a) password is ever held in memory
+public class AuthenticationCache implements MeterBinder {
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final Duration timeToLive;
+    private final int maximumSize;
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> mac;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private record Entry(String username, Collection<? extends GrantedAuthority> authorities, long expiresAt) {
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+
+    public AuthenticationCache(@Value("${recipes.security.auth-cache.ttl:5m}") Duration timeToLive,
+                               @Value("${recipes.security.auth-cache.maximum-size:10000}") int maximumSize) {
+        this.timeToLive = timeToLive;
+        this.maximumSize = maximumSize;
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.mac = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public UserDetails get(String username, CharSequence password) {
+        Entry entry = entries.get(keyFor(username, password));
+        if (entry == null || entry.isExpired(System.nanoTime())) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return new User(entry.username(), "", entry.authorities());
+    }
+
+    public void put(String username, CharSequence password, UserDetails userDetails) {
+        if (maximumSize <= 0) {
+            return;
+        }
+        if (entries.size() >= maximumSize) {
+            makeRoom();
+        }
+        entries.put(keyFor(username, password),
+                new Entry(userDetails.getUsername(), userDetails.getAuthorities(), System.nanoTime() + timeToLive.toNanos()));
+    }
+
+    public void evict(String username) {
+        entries.values().removeIf(entry -> entry.username().equals(username));
+    }
+
+    @EventListener
+    public void onAppUserChanged(AppUserChangedEvent event) {
+        evict(event.email());
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("recipes.auth.cache.hits", this, AuthenticationCache::getHits)
+                .description("Authentications served from the credentials cache")
+                .register(registry);
+        FunctionCounter.builder("recipes.auth.cache.misses", this, AuthenticationCache::getMisses)
+                .description("Authentications that required a full password check")
+                .register(registry);
+        FunctionCounter.builder("recipes.auth.cache.evictions", evictions, AtomicLong::get)
+                .description("Entries dropped because the cache was full")
+                .register(registry);
+        Gauge.builder("recipes.auth.cache.size", this, AuthenticationCache::size)
+                .description("Verified credentials currently cached")
+                .register(registry);
+    }
+
+    private void makeRoom() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        Iterator<String> iterator = entries.keySet().iterator();
+        while (entries.size() >= maximumSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private String keyFor(String username, CharSequence password) {
+        Mac hmac = mac.get();
+        hmac.update(username.getBytes(StandardCharsets.UTF_8));
+        hmac.update((byte) 0);
+        return Base64.getEncoder().encodeToString(hmac.doFinal(password.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac hmac = Mac.getInstance(ALGORITHM);
+            hmac.init(key);
+            return hmac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Couldn't initialise " + ALGORITHM + " for the authentication cache.", e);
+        }
+    }
+}
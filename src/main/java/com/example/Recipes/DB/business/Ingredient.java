@@ -0,0 +1,21 @@
+package com.example.Recipes.DB.business;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import jakarta.persistence.*;
+
+// One row per distinct ingredient text (unique, see V4__Ingredient_dictionary.sql), recipes refer to it through the
+// recipe_ingredient join table
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+public class Ingredient {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(nullable = false)
+    private String name;
+}
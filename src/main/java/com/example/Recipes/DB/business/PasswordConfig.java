@@ -0,0 +1,134 @@
+package com.example.Recipes.DB.business;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// The one encoder used both to hash new passwords and to check them on login. Stored hashes are prefixed with their
+// algorithm and carry their own cost, so any of them can be checked whatever is configured now, and hashes made with
+// another algorithm or another cost (lower or higher) are replaced on the next successful login (see
+// AppUserService.updatePassword)
+@Configuration
+public class PasswordConfig {
+    // Spring's BCrypt and Argon2 encoders only ask for a rehash when the stored cost is lower than configured, so
+    // lowering it would never take effect
+    static class BCrypt extends BCryptPasswordEncoder {
+        private static final Pattern COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+        private final int strength;
+
+        BCrypt(int strength) {
+            super(strength);
+            this.strength = strength;
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            Matcher matcher = COST.matcher(encodedPassword == null ? "" : encodedPassword);
+            return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+        }
+    }
+
+    static class Argon2 extends Argon2PasswordEncoder {
+        private static final Pattern PARAMETERS = Pattern.compile("\\$m=(\\d+),t=(\\d+),p=(\\d+)\\$");
+        private final int memory;
+        private final int iterations;
+
+        Argon2(int memory, int iterations) {
+            super(16, 32, 1, memory, iterations);
+            this.memory = memory;
+            this.iterations = iterations;
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            Matcher matcher = PARAMETERS.matcher(encodedPassword == null ? "" : encodedPassword);
+            return matcher.find() && (Integer.parseInt(matcher.group(1)) != memory
+                    || Integer.parseInt(matcher.group(2)) != iterations || Integer.parseInt(matcher.group(3)) != 1);
+        }
+    }
+
+    // PBKDF2 hashes don't say how many iterations made them, so they are stored as "<iterations>$<hash>" and checked
+    // with that count, whatever is configured now
+    static class Pbkdf2 implements PasswordEncoder {
+        // Hashes stored before the count was part of them were all made with the default of that time
+        static final int LEGACY_ITERATIONS = 310000;
+
+        private final int iterations;
+        private final Map<Integer, Pbkdf2PasswordEncoder> encoders = new ConcurrentHashMap<>();
+
+        Pbkdf2(int iterations) {
+            this.iterations = iterations;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return iterations + "$" + encoder(iterations).encode(rawPassword);
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            int separator = encodedPassword.indexOf('$');
+            if (separator < 0) {
+                return encoder(LEGACY_ITERATIONS).matches(rawPassword, encodedPassword);
+            }
+            Integer storedIterations = iterationsOf(encodedPassword);
+            return storedIterations != null
+                    && encoder(storedIterations).matches(rawPassword, encodedPassword.substring(separator + 1));
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            Integer storedIterations = iterationsOf(encodedPassword);
+            return storedIterations != null && storedIterations != iterations;
+        }
+
+        private static Integer iterationsOf(String encodedPassword) {
+            if (encodedPassword == null || encodedPassword.isEmpty()) {
+                return null;
+            }
+            int separator = encodedPassword.indexOf('$');
+            if (separator < 0) {
+                return LEGACY_ITERATIONS;
+            }
+            try {
+                return Integer.parseInt(encodedPassword.substring(0, separator));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        private Pbkdf2PasswordEncoder encoder(int iterations) {
+            return encoders.computeIfAbsent(iterations, count -> new Pbkdf2PasswordEncoder("", 16, count,
+                    Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256));
+        }
+    }
+
+    @Bean
+    public TimedPasswordEncoder passwordEncoder(@Value("${recipes.security.password.algorithm:bcrypt}") String algorithm,
+                                           @Value("${recipes.security.password.bcrypt-strength:10}") int bcryptStrength,
+                                           @Value("${recipes.security.password.pbkdf2-iterations:310000}") int pbkdf2Iterations,
+                                           @Value("${recipes.security.password.argon2-memory:16384}") int argon2Memory,
+                                           @Value("${recipes.security.password.argon2-iterations:2}") int argon2Iterations) {
+        Map<String, PasswordEncoder> encoders = Map.of(
+                "bcrypt", new BCrypt(bcryptStrength),
+                "pbkdf2", new Pbkdf2(pbkdf2Iterations),
+                "argon2", new Argon2(argon2Memory, argon2Iterations));
+        if (!encoders.containsKey(algorithm.toLowerCase())) {
+            throw new IllegalArgumentException("Unknown password algorithm '" + algorithm + "'.");
+        }
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(algorithm.toLowerCase(), encoders);
+        // Hashes stored before they were prefixed are all bcrypt
+        passwordEncoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        return new TimedPasswordEncoder(passwordEncoder, algorithm.toLowerCase());
+    }
+}
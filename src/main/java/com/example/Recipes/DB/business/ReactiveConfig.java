@@ -0,0 +1,34 @@
+package com.example.Recipes.DB.business;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+// Built here instead of by Spring Boot's R2DBC auto-configuration (excluded in application.properties), whose
+// reactive transaction manager would stop the JPA one from being created
+@Configuration
+@ConditionalOnProperty(name = "recipes.reactive.enabled", havingValue = "true")
+public class ReactiveConfig {
+
+    @Bean
+    public ConnectionFactory reactiveConnectionFactory(@Value("${recipes.reactive.url}") String url,
+                                                       @Value("${recipes.reactive.username:}") String username,
+                                                       @Value("${recipes.reactive.password:}") String password) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+        if (!username.isEmpty()) {
+            options.option(ConnectionFactoryOptions.USER, username);
+            options.option(ConnectionFactoryOptions.PASSWORD, password);
+        }
+        return ConnectionFactories.get(options.build());
+    }
+
+    @Bean
+    public DatabaseClient reactiveDatabaseClient(ConnectionFactory reactiveConnectionFactory) {
+        return DatabaseClient.create(reactiveConnectionFactory);
+    }
+}
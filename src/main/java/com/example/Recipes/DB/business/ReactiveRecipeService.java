@@ -0,0 +1,34 @@
+package com.example.Recipes.DB.business;
+
+import com.example.Recipes.DB.persistence.ReactiveRecipeRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static com.example.Recipes.DB.business.RecipeService.SearchCriterion;
+import static com.example.Recipes.DB.business.SamplingTurboFilter.SAMPLED;
+
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "recipes.reactive.enabled", havingValue = "true")
+public class ReactiveRecipeService {
+    private final ReactiveRecipeRepository reactiveRecipeRepository;
+    private final Logger LOGGER = LoggerFactory.getLogger(ReactiveRecipeService.class);
+
+    public Mono<Recipe> get(long id) {
+        return reactiveRecipeRepository.findById(id);
+    }
+
+    public Flux<Recipe> search(String search, SearchCriterion searchCriterion) {
+        LOGGER.info(SAMPLED, "Streaming search (criterion={}, search='{}').", searchCriterion, search);
+        return switch (searchCriterion) {
+            case CATEGORY -> reactiveRecipeRepository.findByCategory(search);
+            case NAME -> reactiveRecipeRepository.findByNameContaining(search);
+            default -> null;
+        };
+    }
+}
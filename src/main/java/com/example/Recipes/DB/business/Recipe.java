@@ -5,21 +5,28 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.Cascade;
 import org.hibernate.annotations.CascadeType;
 import org.springframework.format.annotation.DateTimeFormat;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 @Entity
 public class Recipe {
+    // The collections of up to this many loaded recipes are read with one statement each, rather than re-running the
+    // query that loaded them (as FetchMode.SUBSELECT would), so streamed exports can load them per chunk too
+    static final int COLLECTION_BATCH_SIZE = 100;
+
+    // Pooled sequence rather than IDENTITY so that Hibernate can batch inserts and needs one round trip per 50 ids
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recipe_seq")
+    @SequenceGenerator(name = "recipe_seq", sequenceName = "recipe_seq", allocationSize = 50)
     @JsonIgnore
     private long id;
 
@@ -36,12 +43,28 @@ public class Recipe {
     @NotBlank(message = "Description is a mandatory field")
     private String description;
 
-    @NotEmpty
-    @ElementCollection
-    private List<@NotEmpty String> ingredients;
+    // The ingredient texts as they are read and written by the API; stored through ingredientEntries, which
+    // IngredientDictionary sets from these before a recipe is saved
+    @Transient
+    private List<String> ingredients;
+
+    // Ingredients are stored once in the ingredient table, so that recipes using one can be found through the index
+    // on ingredient_id (see the migrations in db/migration for this and all other indexes)
+    @ManyToMany
+    @JoinTable(name = "recipe_ingredient",
+            joinColumns = @JoinColumn(name = "recipe_id"),
+            inverseJoinColumns = @JoinColumn(name = "ingredient_id"))
+    @OrderColumn(name = "position")
+    @BatchSize(size = COLLECTION_BATCH_SIZE)
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @Schema(hidden = true)
+    private List<Ingredient> ingredientEntries;
 
     @NotEmpty
     @ElementCollection
+    @BatchSize(size = COLLECTION_BATCH_SIZE)
     private List<@NotEmpty String> directions;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -52,4 +75,25 @@ public class Recipe {
     @ToString.Exclude
     @Schema(hidden = true)
     private AppUser appUser;
+
+    public Recipe(long id, String name, String category, LocalDateTime date, String description,
+                  List<String> ingredients, List<String> directions, AppUser appUser) {
+        this.id = id;
+        this.name = name;
+        this.category = category;
+        this.date = date;
+        this.description = description;
+        this.ingredients = ingredients;
+        this.directions = directions;
+        this.appUser = appUser;
+    }
+
+    // Recipes loaded from the database only have their ingredient rows, the texts are taken from those when first read
+    @NotEmpty
+    public List<@NotEmpty String> getIngredients() {
+        if (ingredients == null && ingredientEntries != null) {
+            ingredients = new ArrayList<>(ingredientEntries.stream().map(Ingredient::getName).toList());
+        }
+        return ingredients;
+    }
 }
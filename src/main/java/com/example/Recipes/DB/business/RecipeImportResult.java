@@ -0,0 +1,8 @@
+package com.example.Recipes.DB.business;
+
+import java.util.List;
+
+// Rows are numbered from 1 in the order they were received; only the first errors are listed, failed counts all
+public record RecipeImportResult(int imported, int failed, List<RowError> errors) {
+    public record RowError(int row, String message) { }
+}
@@ -0,0 +1,170 @@
+package com.example.Recipes.DB.business;
+
+import com.example.Recipes.DB.persistence.IngredientDictionary;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class RecipeImportService {
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final RecipeService recipeService;
+    private final IngredientDictionary ingredientDictionary;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final int chunkSize;
+    private final Logger LOGGER = LoggerFactory.getLogger(RecipeImportService.class);
+
+    private record Row(int number, Recipe recipe) { }
+
+    private static class Progress {
+        int imported;
+        int failed;
+        final List<RecipeImportResult.RowError> errors = new ArrayList<>();
+
+        void fail(int row, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RecipeImportResult.RowError(row, message));
+            }
+        }
+    }
+
+    public RecipeImportService(RecipeService recipeService, IngredientDictionary ingredientDictionary,
+                               EntityManager entityManager, PlatformTransactionManager transactionManager,
+                               Validator validator, @Value("${recipes.import.chunk-size:1000}") int chunkSize) {
+        this.recipeService = recipeService;
+        this.ingredientDictionary = ingredientDictionary;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    // Reading a recipe may fail for a single row (e.g. a wrong type), in which case the iterator is expected to
+    // throw from next() and carry on with the following row
+    public RecipeImportResult importRecipes(Iterator<Recipe> recipes, String owner) {
+        long start = System.nanoTime();
+        Progress progress = new Progress();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        LocalDateTime now = LocalDateTime.now();
+        int rowNumber = 0;
+        while (true) {
+            try {
+                if (!recipes.hasNext()) {
+                    break;
+                }
+            } catch (RuntimeException e) {
+                // The input itself is broken, nothing after this point can be read
+                progress.fail(rowNumber + 1, "Unreadable input: " + e.getMessage());
+                break;
+            }
+            rowNumber++;
+            Recipe recipe;
+            try {
+                recipe = recipes.next();
+            } catch (RuntimeException e) {
+                progress.fail(rowNumber, "Unreadable recipe: " + e.getMessage());
+                continue;
+            }
+            String violations = validate(recipe);
+            if (violations != null) {
+                progress.fail(rowNumber, violations);
+                continue;
+            }
+            recipe.setId(0);
+            recipe.setDate(now);
+            chunk.add(new Row(rowNumber, recipe));
+            if (chunk.size() == chunkSize) {
+                write(chunk, owner, progress);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            write(chunk, owner, progress);
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        LOGGER.info("Imported {} recipes for '{}' in {} ms, {} rows failed.", progress.imported, owner, millis,
+                progress.failed);
+        return new RecipeImportResult(progress.imported, progress.failed, progress.errors);
+    }
+
+    private String validate(Recipe recipe) {
+        if (recipe == null) {
+            return "Recipe is empty";
+        }
+        Set<ConstraintViolation<Recipe>> violations = validator.validate(recipe);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private void write(List<Row> chunk, String owner, Progress progress) {
+        try {
+            List<Recipe> saved = persist(chunk.stream().map(Row::recipe).toList(), owner);
+            recipeService.onImported(saved);
+            progress.imported += saved.size();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Chunk of {} recipes rejected ({}), retrying one by one.", chunk.size(), e.getMessage());
+            // Write the rows one per transaction to find those the database rejects and keep all others
+            for (Row row : chunk) {
+                try {
+                    List<Recipe> saved = persist(List.of(copyOf(row.recipe())), owner);
+                    recipeService.onImported(saved);
+                    progress.imported++;
+                } catch (RuntimeException rowException) {
+                    progress.fail(row.number(), "Rejected by the database: " + rootCause(rowException).getMessage());
+                }
+            }
+        }
+    }
+
+    private List<Recipe> persist(List<Recipe> recipes, String owner) {
+        // New ingredient names are committed by the dictionary itself and stay even if the chunk is rolled back
+        ingredientDictionary.intern(recipes);
+        return transactionTemplate.execute(status -> {
+            // A reference is enough for the foreign key, so the owner is never loaded
+            AppUser appUser = entityManager.getReference(AppUser.class, owner);
+            for (Recipe recipe : recipes) {
+                recipe.setAppUser(appUser);
+                entityManager.persist(recipe);
+            }
+            entityManager.flush();
+            entityManager.clear();
+            return recipes;
+        });
+    }
+
+    // A recipe from a rolled back chunk already has an id and Hibernate's collection wrappers, so it can't be reused
+    private static Recipe copyOf(Recipe recipe) {
+        return new Recipe(0, recipe.getName(), recipe.getCategory(), recipe.getDate(), recipe.getDescription(),
+                new ArrayList<>(recipe.getIngredients()), new ArrayList<>(recipe.getDirections()), null);
+    }
+
+    private static Throwable rootCause(Throwable throwable) {
+        Throwable cause = throwable;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
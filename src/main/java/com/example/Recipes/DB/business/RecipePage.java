@@ -0,0 +1,5 @@
+package com.example.Recipes.DB.business;
+
+import java.util.List;
+
+public record RecipePage(List<Recipe> recipes, String nextCursor) { }
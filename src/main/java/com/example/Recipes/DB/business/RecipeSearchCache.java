@@ -0,0 +1,121 @@
+package com.example.Recipes.DB.business;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+import static com.example.Recipes.DB.business.RecipeService.SearchCriterion;
+
+// Caches category and name search results; a write only drops the results it can affect, i.e. those for the recipe's
+// category, those whose name term the recipe matches and those that contained the recipe before
+@Component
+public class RecipeSearchCache implements MeterBinder {
+    private final AsyncCache<Key, List<Recipe>> cache;
+
+    private record Key(SearchCriterion criterion, String term) { }
+
+    public RecipeSearchCache(@Value("${recipes.search.cache.ttl:10m}") Duration timeToLive,
+                             @Value("${recipes.search.cache.maximum-size:1000}") long maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .buildAsync();
+    }
+
+    public List<Recipe> get(SearchCriterion searchCriterion, String search, Supplier<List<Recipe>> loader) {
+        Key key = new Key(searchCriterion, normalize(search));
+        // The first caller for a key loads the result in its own thread (and transaction), concurrent callers for the
+        // same key wait on the future rather than inside the cache, which would pin virtual threads to their carrier
+        CompletableFuture<List<Recipe>> created = new CompletableFuture<>();
+        CompletableFuture<List<Recipe>> future = cache.get(key, (k, executor) -> created);
+        if (future == created) {
+            try {
+                List<Recipe> loaded = loader.get();
+                created.complete(loaded == null ? null : List.copyOf(loaded));
+            } catch (RuntimeException e) {
+                created.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    public void onSaved(Recipe recipe) {
+        afterCommit(() -> invalidate(recipe.getId(), normalize(recipe.getCategory()), normalize(recipe.getName())));
+    }
+
+    public void onDeleted(long id) {
+        afterCommit(() -> invalidate(id, null, null));
+    }
+
+    public void invalidateAll() {
+        afterCommit(() -> cache.synchronous().invalidateAll());
+    }
+
+    public long size() {
+        return cache.synchronous().estimatedSize();
+    }
+
+    private void invalidate(long id, String category, String name) {
+        cache.asMap().entrySet().removeIf(entry -> isAffected(entry, id, category, name));
+    }
+
+    private static boolean isAffected(Map.Entry<Key, CompletableFuture<List<Recipe>>> entry, long id, String category,
+                                      String name) {
+        CompletableFuture<List<Recipe>> future = entry.getValue();
+        // A result that is still loading may be from before the write; callers already waiting get it this once
+        List<Recipe> recipes = future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+        if (recipes == null) {
+            return true;
+        }
+        Key key = entry.getKey();
+        boolean matches = switch (key.criterion()) {
+            case CATEGORY -> key.term().equals(category);
+            case NAME -> name != null && name.contains(key.term());
+            default -> true;
+        };
+        return matches || recipes.stream().anyMatch(recipe -> recipe.getId() == id);
+    }
+
+    // Invalidating before the commit would let a concurrent search cache the old rows again
+    private static void afterCommit(Runnable runnable) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            runnable.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                runnable.run();
+            }
+        });
+    }
+
+    private static String normalize(String text) {
+        return text == null ? null : text.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache.synchronous(), "recipe-searches");
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.Recipes.DB.business;
+
+import java.time.LocalDateTime;
+
+// Search where every criterion that is set has to match
+public record RecipeSearchQuery(String category, String name, String ingredient, LocalDateTime from,
+                                LocalDateTime to, String author) {
+    public boolean isEmpty() {
+        return isBlank(category) && isBlank(name) && isBlank(ingredient) && from == null && to == null
+                && isBlank(author);
+    }
+
+    static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -1,19 +1,49 @@
 package com.example.Recipes.DB.business;
 
+import com.example.Recipes.DB.persistence.IngredientDictionary;
+import com.example.Recipes.DB.persistence.RecipeIndex;
+import com.example.Recipes.DB.persistence.RecipeNameSearch;
 import com.example.Recipes.DB.persistence.RecipeRepository;
-import com.example.Recipes.DB.presentation.RecipeController;
+import com.example.Recipes.DB.persistence.RecipeSpecifications;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
-import java.util.logging.Logger;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static com.example.Recipes.DB.business.SamplingTurboFilter.SAMPLED;
 
 @Service
 @RequiredArgsConstructor
 public class RecipeService {
     public enum SearchCriterion {
-        UNDEFINED(0), CATEGORY (1), NAME (2);
+        UNDEFINED(0), CATEGORY (1), NAME (2), INGREDIENT (3), TEXT (4), USES_INGREDIENT (5);
 
         private final int id;
         public int getId()
@@ -25,6 +55,9 @@ public class RecipeService {
             switch (id) {
                 case 1 -> { return CATEGORY; }
                 case 2 -> { return NAME; }
+                case 3 -> { return INGREDIENT; }
+                case 4 -> { return TEXT; }
+                case 5 -> { return USES_INGREDIENT; }
                 default ->  { return UNDEFINED; }
             }
         }
@@ -35,57 +68,436 @@ public class RecipeService {
         }
     }
 
+    public enum MutationResult {
+        SUCCESS, NOT_FOUND, FORBIDDEN, PRECONDITION_FAILED
+    }
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    // Keeps "in (...)" lists of bulk operations well below the bind parameter limits of the databases
+    public static final int BULK_CHUNK_SIZE = 1000;
+
     private final RecipeRepository recipeRepository;
-    private final Logger LOGGER = Logger.getLogger(RecipeController.class.getName());
+    private final RecipeNameSearch recipeNameSearch;
+    private final RecipeIndex recipeIndex;
+    private final RecipeSearchCache recipeSearchCache;
+    private final IngredientDictionary ingredientDictionary;
+    private final EntityManager entityManager;
+    private final MeterRegistry meterRegistry;
+    private final Logger LOGGER = LoggerFactory.getLogger(RecipeService.class);
 
+    // A new recipe may get an id that was looked up (and cached as not found) before, so that entry has to go too
+    @CacheEvict(cacheNames = CacheConfig.RECIPES, key = "#result.id", condition = "#result != null")
     public Recipe add(Recipe recipe, boolean update) {
-        recipe.setDate(LocalDateTime.now());
-        if (update) {
-            if (recipeRepository.findById(recipe.getId()).isEmpty()) {
-                LOGGER.warning("Update failed because recipe (id=" + recipe.getId() + ") could not be found.");
-                return null;
+        return timed("add", null, () -> {
+            recipe.setDate(LocalDateTime.now());
+            if (update) {
+                if (recipeRepository.findById(recipe.getId()).isEmpty()) {
+                    LOGGER.warn("Update failed because recipe (id={}) could not be found.", recipe.getId());
+                    return null;
+                }
+                LOGGER.info("Updated recipe (id={}).", recipe.getId());
+                return saveAndIndex(recipe);
             }
-            LOGGER.info("Updated: " + recipe);
-            return recipeRepository.save(recipe);
+            LOGGER.info("Adding recipe '{}'.", recipe.getName());
+            return saveAndIndex(recipe);
+        });
+    }
+
+    private Recipe saveAndIndex(Recipe recipe) {
+        ingredientDictionary.intern(recipe);
+        Recipe saved = recipeRepository.save(recipe);
+        if (saved != null) {
+            afterCommit(() -> {
+                recipeNameSearch.onSaved(saved);
+                recipeIndex.put(saved);
+            });
+            recipeSearchCache.onSaved(saved);
         }
-        LOGGER.info("Adding: " + recipe);
-        return recipeRepository.save(recipe);
+        return saved;
+    }
+
+    // Imported recipes may take ids whose lookup was cached as not found, and can match any cached search
+    @CacheEvict(cacheNames = CacheConfig.RECIPES, allEntries = true)
+    public void onImported(List<Recipe> recipes) {
+        afterCommit(() -> {
+            for (Recipe recipe : recipes) {
+                recipeNameSearch.onSaved(recipe);
+                recipeIndex.put(recipe);
+            }
+        });
+        recipeSearchCache.invalidateAll();
+    }
+
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.RECIPES, key = "#id")
+    public MutationResult update(long id, Recipe recipe, String owner) {
+        return update(id, recipe, owner, null);
     }
 
+    // ifMatch holds the ETags (see RecipeVersion) the client expects, null updates unconditionally
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.RECIPES, key = "#id")
+    public MutationResult update(long id, Recipe recipe, String owner, String ifMatch) {
+        return timed("update", null, () -> {
+            Optional<String> currentOwner = recipeRepository.findOwnerById(id);
+            if (currentOwner.isEmpty()) {
+                LOGGER.warn("Update failed because recipe (id={}) could not be found.", id);
+                return MutationResult.NOT_FOUND;
+            }
+            if (!currentOwner.get().equals(owner)) {
+                LOGGER.warn("Update failed because '{}' is not the owner of recipe (id={}).", owner, id);
+                return MutationResult.FORBIDDEN;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            if (ifMatch != null && !claimVersion(id, ifMatch, now)) {
+                LOGGER.warn("Update failed because recipe (id={}) does not match '{}'.", id, ifMatch);
+                return MutationResult.PRECONDITION_FAILED;
+            }
+            recipe.setId(id);
+            recipe.setDate(now);
+            ingredientDictionary.intern(recipe);
+            recipeRepository.save(recipe);
+            afterCommit(() -> {
+                recipeNameSearch.onSaved(recipe);
+                recipeIndex.put(recipe);
+            });
+            recipeSearchCache.onSaved(recipe);
+            LOGGER.info("Updated recipe (id={}).", recipe.getId());
+            return MutationResult.SUCCESS;
+        });
+    }
+
+    private boolean claimVersion(long id, String ifMatch, LocalDateTime now) {
+        Optional<LocalDateTime> date = recipeRepository.findDateById(id);
+        // A concurrent update that got in between the two statements makes the second one match no row
+        return date.isPresent()
+                && new RecipeVersion(id, date.get()).matches(ifMatch)
+                && recipeRepository.updateDateIfUnchanged(id, date.get(), now) > 0;
+    }
+
+    public RecipeVersion getVersion(long id) {
+        return recipeRepository.findDateById(id).map(date -> new RecipeVersion(id, date)).orElse(null);
+    }
+
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.RECIPES, key = "#id", sync = true)
     public Recipe get(long id) {
-        if (recipeRepository.findById(id).isPresent()) {
-            LOGGER.info("Recipe (id=" + id + ") found.");
-            return recipeRepository.findById(id).get();
+        return timed("get", null, () -> {
+            Optional<Recipe> recipe = recipeRepository.findById(id);
+            if (recipe.isPresent()) {
+                LOGGER.info(SAMPLED, "Recipe (id={}) found.", id);
+                // Cached recipes outlive the session, so everything that gets serialised has to be loaded now
+                Hibernate.initialize(recipe.get().getIngredients());
+                Hibernate.initialize(recipe.get().getDirections());
+                return recipe.get();
+            }
+            LOGGER.warn("Recipe (id={}) not found.", id);
+            return null;
+        });
+    }
+
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.RECIPES, key = "#id")
+    public MutationResult delete(long id, String owner) {
+        return timed("delete", null, () -> {
+            // Ownership is part of every statement, so the happy path never has to read the recipe first
+            recipeRepository.deleteIngredientsByIdAndOwner(id, owner);
+            recipeRepository.deleteDirectionsByIdAndOwner(id, owner);
+            if (recipeRepository.deleteByIdAndOwner(id, owner) > 0) {
+                LOGGER.info("Recipe (id={}) deleted.", id);
+                afterCommit(() -> {
+                    recipeNameSearch.onDeleted(id);
+                    recipeIndex.remove(id);
+                });
+                recipeSearchCache.onDeleted(id);
+                return MutationResult.SUCCESS;
+            }
+            if (recipeRepository.existsById(id)) {
+                LOGGER.warn("Recipe (id={}) not deleted because '{}' is not the owner.", id, owner);
+                return MutationResult.FORBIDDEN;
+            }
+            LOGGER.warn("Recipe (id={}) to be deleted cannot be found.", id);
+            return MutationResult.NOT_FOUND;
+        });
+    }
+
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.RECIPES, allEntries = true)
+    public int deleteByCategory(String owner, String category) {
+        List<Long> ids = recipeRepository.findIdsByOwnerAndCategory(owner, category);
+        recipeRepository.deleteIngredientsByOwnerAndCategory(owner, category);
+        recipeRepository.deleteDirectionsByOwnerAndCategory(owner, category);
+        int deleted = recipeRepository.deleteByOwnerAndCategory(owner, category);
+        onBulkDeleted(ids);
+        LOGGER.info("Deleted {} recipes of '{}' in category '{}'.", deleted, owner, category);
+        return deleted;
+    }
+
+    // Ids that don't exist or belong to someone else are skipped, the result only counts deleted recipes
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.RECIPES, allEntries = true)
+    public int deleteByIds(String owner, List<Long> ids) {
+        int deleted = 0;
+        for (List<Long> chunk : chunks(ids)) {
+            List<Long> owned = recipeRepository.findIdsByIdsAndOwner(chunk, owner);
+            if (owned.isEmpty()) {
+                continue;
+            }
+            recipeRepository.deleteIngredientsByIdsAndOwner(owned, owner);
+            recipeRepository.deleteDirectionsByIdsAndOwner(owned, owner);
+            deleted += recipeRepository.deleteByIdsAndOwner(owned, owner);
+            onBulkDeleted(owned);
         }
-        LOGGER.warning("Recipe (id=" + id + ") not found.");
-        return null;
+        LOGGER.info("Deleted {} of {} requested recipes of '{}'.", deleted, ids.size(), owner);
+        return deleted;
+    }
+
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.RECIPES, allEntries = true)
+    public int recategorizeByCategory(String owner, String fromCategory, String category) {
+        int updated = recipeRepository.updateCategoryByOwnerAndCategory(owner, fromCategory, category,
+                LocalDateTime.now());
+        recipeSearchCache.invalidateAll();
+        LOGGER.info("Moved {} recipes of '{}' from category '{}' to '{}'.", updated, owner, fromCategory, category);
+        return updated;
+    }
+
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.RECIPES, allEntries = true)
+    public int recategorizeByIds(String owner, List<Long> ids, String category) {
+        LocalDateTime now = LocalDateTime.now();
+        int updated = 0;
+        for (List<Long> chunk : chunks(ids)) {
+            updated += recipeRepository.updateCategoryByIdsAndOwner(chunk, owner, category, now);
+        }
+        recipeSearchCache.invalidateAll();
+        LOGGER.info("Moved {} of {} requested recipes of '{}' to category '{}'.", updated, ids.size(), owner,
+                category);
+        return updated;
+    }
+
+    private void onBulkDeleted(List<Long> ids) {
+        afterCommit(() -> {
+            for (long id : ids) {
+                recipeNameSearch.onDeleted(id);
+                recipeIndex.remove(id);
+            }
+        });
+        recipeSearchCache.invalidateAll();
+    }
+
+    // The in-memory indexes must not keep writes that are rolled back, so they are only changed once the surrounding
+    // transaction (if any) has committed
+    private static void afterCommit(Runnable runnable) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            runnable.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                runnable.run();
+            }
+        });
     }
 
-    public boolean delete(long id) {
-        if (recipeRepository.findById(id).isPresent()) {
-            LOGGER.info("Recipe (id=" + id + ") to be deleted does exist.");
-            recipeRepository.deleteById(id);
-            return true;
+    private static List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += BULK_CHUNK_SIZE) {
+            chunks.add(ids.subList(i, Math.min(i + BULK_CHUNK_SIZE, ids.size())));
         }
-        LOGGER.warning("Recipe (id=" + id + ") to be deleted cannot be found.");
-        return false;
+        return chunks;
     }
 
+    @Transactional(readOnly = true)
     public List<Recipe> search(String search, SearchCriterion searchCriterion) {
-        return switch (searchCriterion) {
-            case CATEGORY -> searchForCategory(search);
-            case NAME -> searchByName(search);
+        return timed("search", searchCriterion.name(), () -> switch (searchCriterion) {
+            case CATEGORY, NAME -> recipeSearchCache.get(searchCriterion, search,
+                    () -> initialized(searchCriterion == SearchCriterion.CATEGORY
+                            ? searchForCategory(search)
+                            : searchByName(search)));
+            case INGREDIENT -> searchIndex(search, RecipeIndex.Field.INGREDIENTS);
+            case TEXT -> searchIndex(search, null);
+            case USES_INGREDIENT -> searchUsingIngredient(search);
             default -> null;
-        };
+        });
+    }
+
+    public List<Recipe> search(RecipeSearchQuery searchQuery) {
+        return timed("search", "COMPOSED", () -> {
+            LOGGER.info(SAMPLED, "Searching for {}.", searchQuery);
+            return recipeRepository.findAll(RecipeSpecifications.matching(searchQuery, ingredientDictionary),
+                    Sort.by(Sort.Order.desc("date"), Sort.Order.desc("id")));
+        });
+    }
+
+    // Same searches as above for list views, only selecting the columns of a RecipeSummary; not cached since they don't
+    // have to load the ingredients and directions
+    @Transactional(readOnly = true)
+    public List<RecipeSummary> searchSummaries(String search, SearchCriterion searchCriterion) {
+        return timed("searchSummaries", searchCriterion.name(), () -> switch (searchCriterion) {
+            case CATEGORY -> recipeRepository.findSummariesByCategory(search);
+            case NAME -> recipeNameSearch.searchSummariesByName(search);
+            case INGREDIENT -> searchIndexSummaries(search, RecipeIndex.Field.INGREDIENTS);
+            case TEXT -> searchIndexSummaries(search, null);
+            case USES_INGREDIENT -> recipeRepository.findSummariesByIngredientName(search);
+            default -> null;
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public List<RecipeSummary> searchSummaries(RecipeSearchQuery searchQuery) {
+        return timed("searchSummaries", "COMPOSED", () -> {
+            LOGGER.info(SAMPLED, "Searching summaries for {}.", searchQuery);
+            CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+            CriteriaQuery<RecipeSummary> query = cb.createQuery(RecipeSummary.class);
+            Root<Recipe> root = query.from(Recipe.class);
+            Specification<Recipe> specification = RecipeSpecifications.matching(searchQuery, ingredientDictionary);
+            query.select(cb.construct(RecipeSummary.class, root.get("id"), root.get("name"), root.get("category"),
+                            root.get("date")))
+                    .where(specification.toPredicate(root, query, cb))
+                    .orderBy(cb.desc(root.get("date")), cb.desc(root.get("id")));
+            return entityManager.createQuery(query).getResultList();
+        });
+    }
+
+    // Stopped when the surrounding transaction completes, if there is one, so that flushing and committing count too
+    private <T> T timed(String operation, String criterion, Supplier<T> work) {
+        Timer timer = Timer.builder("recipes.service")
+                .description("Time spent in RecipeService")
+                .tag("operation", operation)
+                .tag("criterion", criterion == null ? "none" : criterion)
+                .register(meterRegistry);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return work.get();
+        } finally {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        sample.stop(timer);
+                    }
+                });
+            } else {
+                sample.stop(timer);
+            }
+        }
+    }
+
+    // Cached results outlive the session, so their collections have to be loaded before they are cached
+    private static List<Recipe> initialized(List<Recipe> recipes) {
+        if (recipes != null) {
+            for (Recipe recipe : recipes) {
+                Hibernate.initialize(recipe.getIngredients());
+                Hibernate.initialize(recipe.getDirections());
+            }
+        }
+        return recipes;
+    }
+
+    private List<Recipe> searchIndex(String search, RecipeIndex.Field field) {
+        if (!recipeIndex.isEnabled()) {
+            LOGGER.warn("Search index is disabled, cannot search for '{}'.", search);
+            return null;
+        }
+        LOGGER.info(SAMPLED, "Searching index (field={}) for '{}'.", field, search);
+        List<Long> ids = Arrays.stream(recipeIndex.search(search, field)).boxed().toList();
+        List<Recipe> recipes = new ArrayList<>(recipeRepository.findAllById(ids));
+        recipes.sort(Comparator.comparing(Recipe::getDate, Comparator.nullsLast(Comparator.reverseOrder())));
+        return recipes;
+    }
+
+    private List<RecipeSummary> searchIndexSummaries(String search, RecipeIndex.Field field) {
+        if (!recipeIndex.isEnabled()) {
+            LOGGER.warn("Search index is disabled, cannot search for '{}'.", search);
+            return null;
+        }
+        LOGGER.info(SAMPLED, "Searching index (field={}) for summaries of '{}'.", field, search);
+        List<Long> ids = Arrays.stream(recipeIndex.search(search, field)).boxed().toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<RecipeSummary> summaries = new ArrayList<>(recipeRepository.findSummariesByIds(ids));
+        summaries.sort(Comparator.comparing(RecipeSummary::date, Comparator.nullsLast(Comparator.reverseOrder())));
+        return summaries;
+    }
+
+    private List<Recipe> searchUsingIngredient(String search) {
+        LOGGER.info(SAMPLED, "Searching for recipes using '{}'.", search);
+        return recipeRepository.findByIngredientName(search);
     }
 
     private List<Recipe> searchByName(String search) {
-        LOGGER.info("Searching by name containing '" + search + "'.");
-        return recipeRepository.findByNameContainingIgnoreCaseOrderByDateDesc(search);
+        LOGGER.info(SAMPLED, "Searching by name containing '{}'.", search);
+        return recipeNameSearch.searchByName(search);
     }
 
     private List<Recipe> searchForCategory(String search) {
-        LOGGER.info("Searching for category='" + search + "'.");
+        LOGGER.info(SAMPLED, "Searching for category='{}'.", search);
         return recipeRepository.findByCategoryIgnoreCaseOrderByDateDesc(search);
     }
+
+    public RecipePage searchPage(String search, SearchCriterion searchCriterion, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // Fetch one extra row to find out whether there is a next page without running a count query
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        SearchCursor after = cursor == null || cursor.isEmpty() ? null : SearchCursor.decode(cursor);
+        LOGGER.info(SAMPLED, "Searching for page of {} (criterion={}, search='{}', cursor={}).", pageSize,
+                searchCriterion, search, after);
+        List<Recipe> recipes = switch (searchCriterion) {
+            case CATEGORY -> after == null
+                    ? recipeRepository.findByCategoryIgnoreCaseOrderByDateDescIdDesc(search, pageable)
+                    : recipeRepository.findByCategoryAfter(search, after.date(), after.id(), pageable);
+            case NAME -> after == null
+                    ? recipeRepository.findByNameContainingIgnoreCaseOrderByDateDescIdDesc(search, pageable)
+                    : recipeRepository.findByNameAfter(search, after.date(), after.id(), pageable);
+            default -> null;
+        };
+        if (recipes == null) {
+            return null;
+        }
+        if (recipes.size() <= pageSize) {
+            return new RecipePage(recipes, null);
+        }
+        List<Recipe> page = recipes.subList(0, pageSize);
+        return new RecipePage(page, SearchCursor.of(page.get(pageSize - 1)).encode());
+    }
+
+    @Transactional(readOnly = true)
+    public boolean export(String search, SearchCriterion searchCriterion, Consumer<Recipe> consumer) {
+        LOGGER.info("Exporting recipes (criterion={}, search='{}').", searchCriterion, search);
+        Stream<Recipe> recipes = switch (searchCriterion) {
+            case CATEGORY -> recipeRepository.streamByCategoryIgnoreCaseOrderByDateDescIdDesc(search);
+            case NAME -> recipeRepository.streamByNameContainingIgnoreCaseOrderByDateDescIdDesc(search);
+            default -> null;
+        };
+        if (recipes == null) {
+            return false;
+        }
+        try (recipes) {
+            List<Recipe> chunk = new ArrayList<>(Recipe.COLLECTION_BATCH_SIZE);
+            Iterator<Recipe> iterator = recipes.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == Recipe.COLLECTION_BATCH_SIZE) {
+                    export(chunk, consumer);
+                    chunk.clear();
+                }
+            }
+            export(chunk, consumer);
+        }
+        return true;
+    }
+
+    private void export(List<Recipe> chunk, Consumer<Recipe> consumer) {
+        // Loads the collections of the whole chunk with one statement each instead of two per recipe
+        initialized(chunk);
+        // Detach every recipe once it has been handed over so the persistence context doesn't grow with the export
+        for (Recipe recipe : chunk) {
+            consumer.accept(recipe);
+            entityManager.detach(recipe);
+        }
+    }
 }
@@ -0,0 +1,26 @@
+package com.example.Recipes.DB.business;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// What list views show of a recipe, selected from the recipe table alone without the ingredients and directions
+public record RecipeSummary(long id, String name, String category, LocalDateTime date) {
+    public static final List<String> FIELDS = List.of("id", "name", "category", "date");
+
+    // Only the given fields, in the given order; each must be one of FIELDS
+    public Map<String, Object> select(List<String> fields) {
+        Map<String, Object> selected = new LinkedHashMap<>();
+        for (String field : fields) {
+            switch (field) {
+                case "id" -> selected.put(field, id);
+                case "name" -> selected.put(field, name);
+                case "category" -> selected.put(field, category);
+                case "date" -> selected.put(field, date);
+                default -> throw new IllegalArgumentException("Unknown field '" + field + "'.");
+            }
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.Recipes.DB.business;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+// Every write sets a new date, so id and date identify one state of a recipe and serve as its strong ETag
+public record RecipeVersion(long id, LocalDateTime date) {
+    public static RecipeVersion of(Recipe recipe) {
+        return recipe.getDate() == null ? null : new RecipeVersion(recipe.getId(), recipe.getDate());
+    }
+
+    public String eTag() {
+        return "\"" + tag() + "\"";
+    }
+
+    // The ETag GET responds with: weak, since Tomcat doesn't gzip responses with a strong ETag, and naming the format
+    // (e.g. json or cbor), since each format of the same version is a different body
+    public String eTag(String format) {
+        return "W/\"" + tag() + "-" + format + "\"";
+    }
+
+    private String tag() {
+        long micros = date.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + date.getNano() / 1_000;
+        return id + "-" + Long.toString(micros, 36);
+    }
+
+    public long lastModified() {
+        return date.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    // Clients only get weak ETags from GET, but these still name exactly one version whatever the format, so If-Match
+    // compares the version in them and ignores W/ and the format
+    public boolean matches(String ifMatch) {
+        String eTag = eTag();
+        String formatPrefix = "\"" + tag() + "-";
+        for (String candidate : ifMatch.split(",")) {
+            String trimmed = candidate.trim();
+            String opaque = trimmed.startsWith("W/") ? trimmed.substring(2) : trimmed;
+            if (trimmed.equals("*") || opaque.equals(eTag) || opaque.startsWith(formatPrefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.Recipes.DB.business;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Position of the last recipe on a page, i.e. the (date desc, id desc) key the next page has to start after
+public record SearchCursor(LocalDateTime date, long id) {
+    private static final String SEPARATOR = "|";
+
+    public static SearchCursor of(Recipe recipe) {
+        return new SearchCursor(recipe.getDate(), recipe.getId());
+    }
+
+    public String encode() {
+        String raw = date + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SearchCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new SearchCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid search cursor '" + token + "'.", e);
+        }
+    }
+}
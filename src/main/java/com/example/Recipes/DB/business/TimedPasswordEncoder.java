@@ -0,0 +1,51 @@
+package com.example.Recipes.DB.business;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+// Times hashing (registration, rehash on login) and verification (every login that misses the credentials cache);
+// until bound to a registry it only delegates
+@RequiredArgsConstructor
+public class TimedPasswordEncoder implements PasswordEncoder, MeterBinder {
+    private final PasswordEncoder delegate;
+    private final String algorithm;
+    private volatile Timer encodeTimer;
+    private volatile Timer matchesTimer;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        encodeTimer = timer(registry, "encode");
+        matchesTimer = timer(registry, "matches");
+    }
+
+    private Timer timer(MeterRegistry registry, String operation) {
+        return Timer.builder("recipes.password")
+                .description("Time spent hashing and verifying passwords")
+                .tag("operation", operation)
+                .tag("algorithm", algorithm)
+                .register(registry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        Timer timer = encodeTimer;
+        return timer == null ? delegate.encode(rawPassword) : timer.record(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        Timer timer = matchesTimer;
+        if (timer == null) {
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+        return Boolean.TRUE.equals(timer.record(() -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.Recipes.DB.persistence;
+
+import com.example.Recipes.DB.business.Recipe;
+import com.example.Recipes.DB.business.RecipeSummary;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Works on any database (H2 in tests), at the cost of keeping every recipe name in memory
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "recipes.search.backend", havingValue = "memory")
+public class InMemoryRecipeNameSearch implements RecipeNameSearch {
+    private final RecipeRepository recipeRepository;
+    private final TrigramIndex trigramIndex = new TrigramIndex();
+    private final Logger LOGGER = LoggerFactory.getLogger(InMemoryRecipeNameSearch.class);
+
+    @PostConstruct
+    void rebuild() {
+        for (RecipeRepository.RecipeName recipeName : recipeRepository.findAllNames()) {
+            trigramIndex.put(recipeName.getId(), recipeName.getName());
+        }
+        LOGGER.info("Indexed names of {} recipes.", trigramIndex.size());
+    }
+
+    @Override
+    public List<Recipe> searchByName(String search) {
+        Map<Long, Double> scores = scores(search);
+        List<Recipe> recipes = new ArrayList<>(recipeRepository.findAllById(scores.keySet()));
+        recipes.sort(Comparator.<Recipe>comparingDouble(recipe -> scores.get(recipe.getId())).reversed()
+                .thenComparing(Recipe::getDate, Comparator.nullsLast(Comparator.reverseOrder())));
+        return recipes;
+    }
+
+    @Override
+    public List<RecipeSummary> searchSummariesByName(String search) {
+        Map<Long, Double> scores = scores(search);
+        if (scores.isEmpty()) {
+            return List.of();
+        }
+        List<RecipeSummary> summaries = new ArrayList<>(recipeRepository.findSummariesByIds(scores.keySet()));
+        summaries.sort(Comparator.<RecipeSummary>comparingDouble(summary -> scores.get(summary.id())).reversed()
+                .thenComparing(RecipeSummary::date, Comparator.nullsLast(Comparator.reverseOrder())));
+        return summaries;
+    }
+
+    private Map<Long, Double> scores(String search) {
+        Map<Long, Double> scores = new HashMap<>();
+        trigramIndex.search(search).forEach(match -> scores.put(match.id(), match.score()));
+        return scores;
+    }
+
+    @Override
+    public void onSaved(Recipe recipe) {
+        trigramIndex.put(recipe.getId(), recipe.getName());
+    }
+
+    @Override
+    public void onDeleted(long id) {
+        trigramIndex.remove(id);
+    }
+}
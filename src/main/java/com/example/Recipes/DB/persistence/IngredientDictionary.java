@@ -0,0 +1,135 @@
+package com.example.Recipes.DB.persistence;
+
+import com.example.Recipes.DB.business.Ingredient;
+import com.example.Recipes.DB.business.Recipe;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Maps ingredient texts to the ids of their rows in the ingredient table, adding rows for texts that are new. Rows are
+// never deleted, so ids can be cached for as long as the application runs
+@Component
+public class IngredientDictionary {
+    // Keeps "in (...)" lists well below the bind parameter limits of the databases
+    static final int CHUNK_SIZE = 1000;
+    // Names another transaction is adding at the same time are skipped instead of failing the caller's transaction
+    private static final String POSTGRESQL_INSERT = "insert into ingredient (name) values (?) " +
+            "on conflict (name) do nothing";
+    private static final String MERGE = "merge into ingredient i using (values (cast(? as varchar(255)))) n (name) " +
+            "on i.name = n.name when not matched then insert (name) values (n.name)";
+
+    private final IngredientRepository ingredientRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<String, Long> ids;
+    private volatile String insert;
+
+    public IngredientDictionary(IngredientRepository ingredientRepository, JdbcTemplate jdbcTemplate,
+                                @Value("${recipes.ingredients.cache.maximum-size:100000}") long maximumSize) {
+        this.ingredientRepository = ingredientRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.ids = Caffeine.newBuilder().maximumSize(maximumSize).build();
+    }
+
+    // Replaces the recipe's ingredient rows with those for its current ingredient texts, in the same order
+    public void intern(Recipe recipe) {
+        intern(List.of(recipe));
+    }
+
+    public void intern(Collection<Recipe> recipes) {
+        Set<String> names = new LinkedHashSet<>();
+        for (Recipe recipe : recipes) {
+            if (recipe.getIngredients() != null) {
+                names.addAll(recipe.getIngredients());
+            }
+        }
+        Map<String, Long> idsByName = idsOf(names);
+        for (Recipe recipe : recipes) {
+            List<Ingredient> entries = new ArrayList<>();
+            if (recipe.getIngredients() != null) {
+                for (String name : recipe.getIngredients()) {
+                    entries.add(new Ingredient(idsByName.get(name), name));
+                }
+            }
+            recipe.setIngredientEntries(entries);
+        }
+    }
+
+    // Ids of the ingredients with this word in their name, split into words the same way as by the search index
+    public Set<Long> idsWithWord(String word) {
+        Set<Long> found = new HashSet<>();
+        for (Ingredient ingredient : ingredientRepository.findByNameContainingIgnoreCase(word)) {
+            if (RecipeIndex.tokenize(ingredient.getName()).contains(word)) {
+                found.add(ingredient.getId());
+            }
+        }
+        return found;
+    }
+
+    private Map<String, Long> idsOf(Set<String> names) {
+        Map<String, Long> idsByName = new HashMap<>(ids.getAllPresent(names));
+        List<String> missing = names.stream().filter(name -> !idsByName.containsKey(name)).toList();
+        lookUp(missing, idsByName);
+        List<String> added = missing.stream().filter(name -> !idsByName.containsKey(name)).toList();
+        if (added.isEmpty()) {
+            return idsByName;
+        }
+        // One batch in the caller's transaction (if any) for all new names, rather than a transaction per name
+        jdbcTemplate.batchUpdate(insert(), added, CHUNK_SIZE, (statement, name) -> statement.setString(1, name));
+        lookUp(added, idsByName);
+        for (String name : added) {
+            if (!idsByName.containsKey(name)) {
+                throw new IllegalStateException("Couldn't add ingredient '" + name + "'.");
+            }
+        }
+        return idsByName;
+    }
+
+    private void lookUp(List<String> names, Map<String, Long> idsByName) {
+        Map<String, Long> found = new HashMap<>();
+        for (int i = 0; i < names.size(); i += CHUNK_SIZE) {
+            for (Ingredient ingredient : ingredientRepository.findByNameIn(
+                    names.subList(i, Math.min(i + CHUNK_SIZE, names.size())))) {
+                found.put(ingredient.getName(), ingredient.getId());
+            }
+        }
+        idsByName.putAll(found);
+        // Rows added by the surrounding transaction are gone if it rolls back, so ids are only cached once it commits
+        afterCommit(() -> ids.putAll(found));
+    }
+
+    private String insert() {
+        if (insert == null) {
+            String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            insert = "PostgreSQL".equals(database) ? POSTGRESQL_INSERT : MERGE;
+        }
+        return insert;
+    }
+
+    private static void afterCommit(Runnable runnable) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            runnable.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                runnable.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.Recipes.DB.persistence;
+
+import com.example.Recipes.DB.business.Ingredient;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface IngredientRepository extends JpaRepository<Ingredient, Long> {
+    List<Ingredient> findByNameIn(Collection<String> names);
+
+    List<Ingredient> findByNameContainingIgnoreCase(String name);
+}
@@ -0,0 +1,251 @@
+package com.example.Recipes.DB.persistence;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Postings are sorted int arrays of internal document numbers. Documents are only ever appended, so adding one keeps
+// every list sorted; removing or replacing a recipe leaves a tombstone that is skipped in results, and once tombstones
+// outnumber live documents the postings are compacted so that updates don't grow the index without bound.
+public class InvertedIndex {
+    private static final int MIN_TOMBSTONES_TO_COMPACT = 1024;
+
+    private static final class IntList {
+        private int[] elements = new int[4];
+        private int size;
+
+        void add(int element) {
+            if (size == elements.length) {
+                elements = Arrays.copyOf(elements, size * 2);
+            }
+            elements[size++] = element;
+        }
+    }
+
+    private final Map<String, IntList> postings = new HashMap<>();
+    private final Map<Long, Integer> documents = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long[] recipeIds = new long[1024];
+    private int documentCount;
+    private int tombstones;
+
+    public void put(long id, Collection<String> terms) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+            int document = documentCount++;
+            if (document == recipeIds.length) {
+                recipeIds = Arrays.copyOf(recipeIds, recipeIds.length * 2);
+            }
+            recipeIds[document] = id;
+            documents.put(id, document);
+            for (String term : new HashSet<>(terms)) {
+                postings.computeIfAbsent(term, key -> new IntList()).add(document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            deleted.clear();
+            recipeIds = new long[1024];
+            documentCount = 0;
+            tombstones = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int tombstones() {
+        lock.readLock().lock();
+        try {
+            return tombstones;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The query is a list of groups that are OR-ed; each group is a list of clauses that are AND-ed and each clause is
+    // a set of alternative terms (e.g. the same token in different fields) that are OR-ed again
+    public long[] search(List<? extends List<? extends Collection<String>>> query) {
+        lock.readLock().lock();
+        try {
+            Slice result = Slice.EMPTY;
+            for (List<? extends Collection<String>> group : query) {
+                result = union(result, searchGroup(group));
+            }
+            long[] ids = new long[result.length()];
+            int count = 0;
+            for (int i = 0; i < result.length(); i++) {
+                int document = result.elements()[i];
+                if (!deleted.get(document)) {
+                    ids[count++] = recipeIds[document];
+                }
+            }
+            return Arrays.copyOf(ids, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // A read-only view of the first length elements of a postings list, so lists can be combined without copying them
+    private record Slice(int[] elements, int length) {
+        static final Slice EMPTY = new Slice(new int[0], 0);
+    }
+
+    private Slice searchGroup(List<? extends Collection<String>> group) {
+        if (group.isEmpty()) {
+            return Slice.EMPTY;
+        }
+        List<Slice> clauses = group.stream().map(this::searchClause)
+                .sorted(Comparator.comparingInt(Slice::length))
+                .toList();
+        // Intersecting the shortest lists first keeps every intermediate result as small as possible
+        Slice result = clauses.get(0);
+        for (int i = 1; i < clauses.size() && result.length() > 0; i++) {
+            result = intersect(result, clauses.get(i));
+        }
+        return result;
+    }
+
+    private Slice searchClause(Collection<String> alternatives) {
+        Slice result = Slice.EMPTY;
+        for (String term : alternatives) {
+            IntList list = postings.get(term);
+            if (list != null) {
+                result = union(result, new Slice(list.elements, list.size));
+            }
+        }
+        return result;
+    }
+
+    private void removeDocument(long id) {
+        Integer document = documents.remove(id);
+        if (document != null) {
+            deleted.set(document);
+            tombstones++;
+            if (tombstones >= MIN_TOMBSTONES_TO_COMPACT && tombstones > documents.size()) {
+                compact();
+            }
+        }
+    }
+
+    // Renumbers the live documents in their current order, so every postings list stays sorted, and drops the
+    // postings of deleted documents and terms that no longer occur
+    private void compact() {
+        int[] renumbered = new int[documentCount];
+        int live = 0;
+        for (int document = 0; document < documentCount; document++) {
+            if (deleted.get(document)) {
+                renumbered[document] = -1;
+            } else {
+                renumbered[document] = live;
+                recipeIds[live++] = recipeIds[document];
+            }
+        }
+        Iterator<IntList> lists = postings.values().iterator();
+        while (lists.hasNext()) {
+            IntList list = lists.next();
+            int size = 0;
+            for (int i = 0; i < list.size; i++) {
+                int document = renumbered[list.elements[i]];
+                if (document >= 0) {
+                    list.elements[size++] = document;
+                }
+            }
+            if (size == 0) {
+                lists.remove();
+            } else {
+                list.size = size;
+            }
+        }
+        documents.replaceAll((id, document) -> renumbered[document]);
+        deleted.clear();
+        documentCount = live;
+        tombstones = 0;
+    }
+
+    private static Slice intersect(Slice a, Slice b) {
+        int[] result = new int[Math.min(a.length(), b.length())];
+        int i = 0, j = 0, count = 0;
+        while (i < a.length() && j < b.length()) {
+            int x = a.elements()[i];
+            int y = b.elements()[j];
+            if (x < y) {
+                i++;
+            } else if (x > y) {
+                j++;
+            } else {
+                result[count++] = x;
+                i++;
+                j++;
+            }
+        }
+        return new Slice(result, count);
+    }
+
+    private static Slice union(Slice a, Slice b) {
+        if (a.length() == 0) {
+            return b;
+        }
+        if (b.length() == 0) {
+            return a;
+        }
+        int[] result = new int[a.length() + b.length()];
+        int i = 0, j = 0, count = 0;
+        while (i < a.length() && j < b.length()) {
+            int x = a.elements()[i];
+            int y = b.elements()[j];
+            if (x < y) {
+                result[count++] = x;
+                i++;
+            } else if (x > y) {
+                result[count++] = y;
+                j++;
+            } else {
+                result[count++] = x;
+                i++;
+                j++;
+            }
+        }
+        while (i < a.length()) {
+            result[count++] = a.elements()[i++];
+        }
+        while (j < b.length()) {
+            result[count++] = b.elements()[j++];
+        }
+        return new Slice(result, count);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.Recipes.DB.persistence;
+
+import com.example.Recipes.DB.business.Recipe;
+import com.example.Recipes.DB.business.RecipeSummary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "recipes.search.backend", havingValue = "like", matchIfMissing = true)
+public class LikeRecipeNameSearch implements RecipeNameSearch {
+    private final RecipeRepository recipeRepository;
+
+    @Override
+    public List<Recipe> searchByName(String search) {
+        return recipeRepository.findByNameContainingIgnoreCaseOrderByDateDesc(search);
+    }
+
+    @Override
+    public List<RecipeSummary> searchSummariesByName(String search) {
+        return recipeRepository.findSummariesByName(search);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.Recipes.DB.persistence;
+
+import com.example.Recipes.DB.business.Recipe;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Reads the tables mapped by Recipe through R2DBC; recipes come without their owner, like the JSON view of them
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "recipes.reactive.enabled", havingValue = "true")
+public class ReactiveRecipeRepository {
+    // Recipes whose ingredients and directions are fetched with one query each
+    static final int BATCH_SIZE = 100;
+    private static final String SELECT_RECIPE = "select id, name, category, date, description from recipe ";
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<Recipe> findById(long id) {
+        return databaseClient.sql(SELECT_RECIPE + "where id = :id")
+                .bind("id", id)
+                .map(ReactiveRecipeRepository::toRecipe)
+                .one()
+                .flatMap(recipe -> withCollections(List.of(recipe)).next());
+    }
+
+    public Flux<Recipe> findByCategory(String category) {
+        return withCollections(databaseClient.sql(SELECT_RECIPE +
+                        "where lower(category) = lower(:category) order by date desc, id desc")
+                .bind("category", category)
+                .map(ReactiveRecipeRepository::toRecipe)
+                .all());
+    }
+
+    public Flux<Recipe> findByNameContaining(String name) {
+        String pattern = "%" + name.toLowerCase().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return withCollections(databaseClient.sql(SELECT_RECIPE +
+                        "where lower(name) like :pattern escape '\\' order by date desc, id desc")
+                .bind("pattern", pattern)
+                .map(ReactiveRecipeRepository::toRecipe)
+                .all());
+    }
+
+    // Collections are loaded per window of recipes as they are requested, so memory stays bounded and a slow
+    // subscriber slows down reading instead of the results piling up
+    private Flux<Recipe> withCollections(Flux<Recipe> recipes) {
+        return recipes.buffer(BATCH_SIZE).concatMap(this::withCollections);
+    }
+
+    private Flux<Recipe> withCollections(List<Recipe> recipes) {
+        Map<Long, Recipe> byId = new LinkedHashMap<>();
+        for (Recipe recipe : recipes) {
+            recipe.setIngredients(new ArrayList<>());
+            recipe.setDirections(new ArrayList<>());
+            byId.put(recipe.getId(), recipe);
+        }
+        List<Long> ids = new ArrayList<>(byId.keySet());
+        Mono<Void> ingredients = databaseClient
+                .sql("select ri.recipe_id, i.name from recipe_ingredient ri " +
+                        "join ingredient i on i.id = ri.ingredient_id " +
+                        "where ri.recipe_id in (:ids) order by ri.recipe_id, ri.position")
+                .bind("ids", ids)
+                .map(row -> Map.entry(row.get("recipe_id", Long.class), row.get("name", String.class)))
+                .all()
+                .doOnNext(entry -> byId.get(entry.getKey()).getIngredients().add(entry.getValue()))
+                .then();
+        Mono<Void> directions = databaseClient
+                .sql("select recipe_id, directions from recipe_directions where recipe_id in (:ids)")
+                .bind("ids", ids)
+                .map(row -> Map.entry(row.get("recipe_id", Long.class), row.get("directions", String.class)))
+                .all()
+                .doOnNext(entry -> byId.get(entry.getKey()).getDirections().add(entry.getValue()))
+                .then();
+        return ingredients.then(directions).thenMany(Flux.fromIterable(recipes));
+    }
+
+    private static Recipe toRecipe(Readable row) {
+        return new Recipe(row.get("id", Long.class), row.get("name", String.class), row.get("category", String.class),
+                row.get("date", LocalDateTime.class), row.get("description", String.class), null, null, null);
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.Recipes.DB.persistence;
+
+import com.example.Recipes.DB.business.Recipe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
+
+// Full-text index over name, ingredients, directions and description of every recipe, held in memory
+@Component
+public class RecipeIndex {
+    public enum Field {
+        NAME("n:"), INGREDIENTS("i:"), DIRECTIONS("d:"), DESCRIPTION("s:");
+
+        private final String prefix;
+
+        Field(String prefix) {
+            this.prefix = prefix;
+        }
+
+        String term(String token) {
+            return prefix + token;
+        }
+    }
+
+    private record Document(long id, String name, String description, List<String> ingredients,
+                            List<String> directions) { }
+
+    private static final int REBUILD_PAGE_SIZE = 1000;
+    private static final Pattern OR = Pattern.compile("\\s+or\\s+|\\|", Pattern.CASE_INSENSITIVE);
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "the", "of", "to", "in", "with");
+
+    private final RecipeRepository recipeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final InvertedIndex invertedIndex = new InvertedIndex();
+    // Writes made while rebuild() runs are applied again once it has finished, as the page it read a recipe from may
+    // be older than the write
+    private final List<Runnable> writesDuringRebuild = new ArrayList<>();
+    private boolean rebuilding;
+    private final Logger LOGGER = LoggerFactory.getLogger(RecipeIndex.class);
+
+    public RecipeIndex(RecipeRepository recipeRepository, PlatformTransactionManager transactionManager,
+                       @Value("${recipes.search.index.enabled:true}") boolean enabled) {
+        this.recipeRepository = recipeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int size() {
+        return invertedIndex.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        synchronized (writesDuringRebuild) {
+            rebuilding = true;
+        }
+        try {
+            invertedIndex.clear();
+            List<CompletableFuture<Void>> pending = new ArrayList<>();
+            long lastId = Long.MIN_VALUE;
+            while (true) {
+                long after = lastId;
+                // Pages are read one after the other, but tokenised and indexed in parallel while the next page loads
+                List<Document> page = transactionTemplate.execute(status -> recipeRepository
+                        .findByIdGreaterThanOrderById(after, PageRequest.of(0, REBUILD_PAGE_SIZE)).stream()
+                        .map(RecipeIndex::document)
+                        .toList());
+                if (page == null || page.isEmpty()) {
+                    break;
+                }
+                lastId = page.get(page.size() - 1).id();
+                pending.add(CompletableFuture.runAsync(() -> page.forEach(this::put)));
+            }
+            CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            replayWritesDuringRebuild();
+        }
+        LOGGER.info("Indexed {} recipes in {} ms.", invertedIndex.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public void put(Recipe recipe) {
+        if (enabled) {
+            Document document = document(recipe);
+            write(() -> put(document));
+        }
+    }
+
+    public void remove(long id) {
+        if (enabled) {
+            write(() -> invertedIndex.remove(id));
+        }
+    }
+
+    private void write(Runnable write) {
+        synchronized (writesDuringRebuild) {
+            if (rebuilding) {
+                writesDuringRebuild.add(write);
+            }
+        }
+        write.run();
+    }
+
+    // Writes made while replaying are recorded again and replayed in the next round, so the last write always wins
+    private void replayWritesDuringRebuild() {
+        while (true) {
+            List<Runnable> writes;
+            synchronized (writesDuringRebuild) {
+                if (writesDuringRebuild.isEmpty()) {
+                    rebuilding = false;
+                    return;
+                }
+                writes = new ArrayList<>(writesDuringRebuild);
+                writesDuringRebuild.clear();
+            }
+            writes.forEach(Runnable::run);
+        }
+    }
+
+    // Words in a query must all match unless separated by "or"/"|", e.g. "basil garlic or pesto" means
+    // (basil AND garlic) OR pesto. Searches every field if none is given.
+    public long[] search(String query, Field field) {
+        List<List<List<String>>> groups = new ArrayList<>();
+        for (List<String> group : groups(query)) {
+            List<List<String>> clauses = new ArrayList<>();
+            for (String token : group) {
+                clauses.add(field == null
+                        ? Arrays.stream(Field.values()).map(f -> f.term(token)).toList()
+                        : List.of(field.term(token)));
+            }
+            groups.add(clauses);
+        }
+        return invertedIndex.search(groups);
+    }
+
+    // The words of each alternative in a query, leaving out alternatives without any
+    static List<List<String>> groups(String query) {
+        List<List<String>> groups = new ArrayList<>();
+        for (String group : OR.split(query)) {
+            List<String> tokens = tokenize(group);
+            if (!tokens.isEmpty()) {
+                groups.add(tokens);
+            }
+        }
+        return groups;
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(NON_WORD.split(text.toLowerCase(Locale.ROOT)))
+                .filter(token -> token.length() > 1 && !STOP_WORDS.contains(token))
+                .toList();
+    }
+
+    private void put(Document document) {
+        List<String> terms = new ArrayList<>();
+        addTerms(terms, Field.NAME, List.of(document.name()));
+        addTerms(terms, Field.DESCRIPTION, List.of(document.description()));
+        addTerms(terms, Field.INGREDIENTS, document.ingredients());
+        addTerms(terms, Field.DIRECTIONS, document.directions());
+        invertedIndex.put(document.id(), terms);
+    }
+
+    private static void addTerms(List<String> terms, Field field, Collection<String> texts) {
+        for (String text : texts) {
+            for (String token : tokenize(text)) {
+                terms.add(field.term(token));
+            }
+        }
+    }
+
+    private static Document document(Recipe recipe) {
+        return new Document(recipe.getId(), nullToEmpty(recipe.getName()), nullToEmpty(recipe.getDescription()),
+                recipe.getIngredients() == null ? List.of() : new ArrayList<>(recipe.getIngredients()),
+                recipe.getDirections() == null ? List.of() : new ArrayList<>(recipe.getDirections()));
+    }
+
+    private static String nullToEmpty(String text) {
+        return text == null ? "" : text;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.Recipes.DB.persistence;
+
+import com.example.Recipes.DB.business.Recipe;
+import com.example.Recipes.DB.business.RecipeSummary;
+
+import java.util.List;
+
+// Backend for "name contains" searches, selected with recipes.search.backend; results are ordered by relevance
+public interface RecipeNameSearch {
+    List<Recipe> searchByName(String search);
+
+    List<RecipeSummary> searchSummariesByName(String search);
+
+    default void onSaved(Recipe recipe) { }
+
+    default void onDeleted(long id) { }
+}
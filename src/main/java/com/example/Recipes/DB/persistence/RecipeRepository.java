@@ -1,12 +1,177 @@
 package com.example.Recipes.DB.persistence;
 
 import com.example.Recipes.DB.business.Recipe;
+import com.example.Recipes.DB.business.RecipeSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface RecipeRepository extends JpaRepository<Recipe, Long> {
+public interface RecipeRepository extends JpaRepository<Recipe, Long>, JpaSpecificationExecutor<Recipe> {
+    interface RecipeName {
+        long getId();
+        String getName();
+    }
+
     List<Recipe> findByCategoryIgnoreCaseOrderByDateDesc(String name);
     List<Recipe> findByNameContainingIgnoreCaseOrderByDateDesc(String name);
+
+    List<Recipe> findByCategoryIgnoreCaseOrderByDateDescIdDesc(String category, Pageable pageable);
+    List<Recipe> findByNameContainingIgnoreCaseOrderByDateDescIdDesc(String name, Pageable pageable);
+
+    @Query("select r from Recipe r where lower(r.category) = lower(:category) " +
+            "and (r.date < :date or (r.date = :date and r.id < :id)) order by r.date desc, r.id desc")
+    List<Recipe> findByCategoryAfter(@Param("category") String category, @Param("date") LocalDateTime date,
+                                     @Param("id") long id, Pageable pageable);
+
+    @Query("select r from Recipe r where lower(r.name) like lower(concat('%', :pattern, '%')) escape '\\' " +
+            "and (r.date < :date or (r.date = :date and r.id < :id)) order by r.date desc, r.id desc")
+    List<Recipe> findByNamePatternAfter(@Param("pattern") String pattern, @Param("date") LocalDateTime date,
+                                        @Param("id") long id, Pageable pageable);
+
+    // Wildcards in the name are taken literally, as by the derived ...NameContaining... queries of the first page
+    default List<Recipe> findByNameAfter(String name, LocalDateTime date, long id, Pageable pageable) {
+        return findByNamePatternAfter(escapeLike(name), date, id, pageable);
+    }
+
+    static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Recipe> streamByCategoryIgnoreCaseOrderByDateDescIdDesc(String category);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Recipe> streamByNameContainingIgnoreCaseOrderByDateDescIdDesc(String name);
+
+    @Query(value = "select * from recipe where lower(name) like '%' || lower(:pattern) || '%' escape '\\' " +
+            "order by similarity(lower(name), lower(:name)) desc, date desc", nativeQuery = true)
+    List<Recipe> findByNameTrigramSimilarity(@Param("pattern") String pattern, @Param("name") String name);
+
+    List<Recipe> findByIdGreaterThanOrderById(long id, Pageable pageable);
+
+    // Summaries for list views only select columns of the recipe table
+    @Query("select new com.example.Recipes.DB.business.RecipeSummary(r.id, r.name, r.category, r.date) " +
+            "from Recipe r where lower(r.category) = lower(:category) order by r.date desc, r.id desc")
+    List<RecipeSummary> findSummariesByCategory(@Param("category") String category);
+
+    @Query("select new com.example.Recipes.DB.business.RecipeSummary(r.id, r.name, r.category, r.date) " +
+            "from Recipe r where lower(r.name) like lower(concat('%', :pattern, '%')) escape '\\' " +
+            "order by r.date desc, r.id desc")
+    List<RecipeSummary> findSummariesByNamePattern(@Param("pattern") String pattern);
+
+    default List<RecipeSummary> findSummariesByName(String name) {
+        return findSummariesByNamePattern(escapeLike(name));
+    }
+
+    @Query("select new com.example.Recipes.DB.business.RecipeSummary(r.id, r.name, r.category, r.date) " +
+            "from Recipe r where lower(r.name) like lower(concat('%', :pattern, '%')) escape '\\' " +
+            "order by function('similarity', lower(r.name), lower(:name)) desc, r.date desc")
+    List<RecipeSummary> findSummariesByNameTrigramSimilarity(@Param("pattern") String pattern,
+                                                             @Param("name") String name);
+
+    @Query("select new com.example.Recipes.DB.business.RecipeSummary(r.id, r.name, r.category, r.date) " +
+            "from Recipe r where r.id in (:ids)")
+    List<RecipeSummary> findSummariesByIds(@Param("ids") Collection<Long> ids);
+
+    // Recipes using an ingredient, found through the (ingredient_id, recipe_id) index of the join table
+    @Query("select r from Recipe r where r.id in (select u.id from Recipe u join u.ingredientEntries i " +
+            "where lower(i.name) = lower(:ingredient)) order by r.date desc, r.id desc")
+    List<Recipe> findByIngredientName(@Param("ingredient") String ingredient);
+
+    @Query("select new com.example.Recipes.DB.business.RecipeSummary(r.id, r.name, r.category, r.date) " +
+            "from Recipe r where r.id in (select u.id from Recipe u join u.ingredientEntries i " +
+            "where lower(i.name) = lower(:ingredient)) order by r.date desc, r.id desc")
+    List<RecipeSummary> findSummariesByIngredientName(@Param("ingredient") String ingredient);
+
+    @Query("select r.id as id, r.name as name from Recipe r")
+    List<RecipeName> findAllNames();
+
+    @Query("select r.appUser.email from Recipe r where r.id = :id")
+    Optional<String> findOwnerById(@Param("id") long id);
+
+    @Query("select r.date from Recipe r where r.id = :id")
+    Optional<LocalDateTime> findDateById(@Param("id") long id);
+
+    // Compare-and-set on the date, the row stays locked until the surrounding transaction ends
+    @Modifying
+    @Query("update Recipe r set r.date = :date where r.id = :id and r.date = :expected")
+    int updateDateIfUnchanged(@Param("id") long id, @Param("expected") LocalDateTime expected,
+                              @Param("date") LocalDateTime date);
+
+    @Modifying
+    @Query(value = "delete from recipe_ingredient where recipe_id in " +
+            "(select id from recipe where id = :id and added_by = :owner)", nativeQuery = true)
+    int deleteIngredientsByIdAndOwner(@Param("id") long id, @Param("owner") String owner);
+
+    @Modifying
+    @Query(value = "delete from recipe_directions where recipe_id in " +
+            "(select id from recipe where id = :id and added_by = :owner)", nativeQuery = true)
+    int deleteDirectionsByIdAndOwner(@Param("id") long id, @Param("owner") String owner);
+
+    @Modifying
+    @Query(value = "delete from recipe where id = :id and added_by = :owner", nativeQuery = true)
+    int deleteByIdAndOwner(@Param("id") long id, @Param("owner") String owner);
+
+    @Query(value = "select id from recipe where added_by = :owner and lower(category) = lower(:category)",
+            nativeQuery = true)
+    List<Long> findIdsByOwnerAndCategory(@Param("owner") String owner, @Param("category") String category);
+
+    @Query(value = "select id from recipe where id in (:ids) and added_by = :owner", nativeQuery = true)
+    List<Long> findIdsByIdsAndOwner(@Param("ids") List<Long> ids, @Param("owner") String owner);
+
+    @Modifying
+    @Query(value = "delete from recipe_ingredient where recipe_id in " +
+            "(select id from recipe where added_by = :owner and lower(category) = lower(:category))",
+            nativeQuery = true)
+    int deleteIngredientsByOwnerAndCategory(@Param("owner") String owner, @Param("category") String category);
+
+    @Modifying
+    @Query(value = "delete from recipe_directions where recipe_id in " +
+            "(select id from recipe where added_by = :owner and lower(category) = lower(:category))",
+            nativeQuery = true)
+    int deleteDirectionsByOwnerAndCategory(@Param("owner") String owner, @Param("category") String category);
+
+    @Modifying
+    @Query(value = "delete from recipe where added_by = :owner and lower(category) = lower(:category)",
+            nativeQuery = true)
+    int deleteByOwnerAndCategory(@Param("owner") String owner, @Param("category") String category);
+
+    @Modifying
+    @Query(value = "delete from recipe_ingredient where recipe_id in " +
+            "(select id from recipe where id in (:ids) and added_by = :owner)", nativeQuery = true)
+    int deleteIngredientsByIdsAndOwner(@Param("ids") List<Long> ids, @Param("owner") String owner);
+
+    @Modifying
+    @Query(value = "delete from recipe_directions where recipe_id in " +
+            "(select id from recipe where id in (:ids) and added_by = :owner)", nativeQuery = true)
+    int deleteDirectionsByIdsAndOwner(@Param("ids") List<Long> ids, @Param("owner") String owner);
+
+    @Modifying
+    @Query(value = "delete from recipe where id in (:ids) and added_by = :owner", nativeQuery = true)
+    int deleteByIdsAndOwner(@Param("ids") List<Long> ids, @Param("owner") String owner);
+
+    @Modifying
+    @Query(value = "update recipe set category = :category, date = :date " +
+            "where added_by = :owner and lower(category) = lower(:from)", nativeQuery = true)
+    int updateCategoryByOwnerAndCategory(@Param("owner") String owner, @Param("from") String from,
+                                         @Param("category") String category, @Param("date") LocalDateTime date);
+
+    @Modifying
+    @Query(value = "update recipe set category = :category, date = :date " +
+            "where id in (:ids) and added_by = :owner", nativeQuery = true)
+    int updateCategoryByIdsAndOwner(@Param("ids") List<Long> ids, @Param("owner") String owner,
+                                    @Param("category") String category, @Param("date") LocalDateTime date);
 }
@@ -0,0 +1,114 @@
+package com.example.Recipes.DB.persistence;
+
+import com.example.Recipes.DB.business.Ingredient;
+import com.example.Recipes.DB.business.Recipe;
+import com.example.Recipes.DB.business.RecipeSearchQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+public final class RecipeSpecifications {
+    private RecipeSpecifications() { }
+
+    public static Specification<Recipe> matching(RecipeSearchQuery searchQuery,
+                                                 IngredientDictionary ingredientDictionary) {
+        Specification<Recipe> specification = Specification.where(null);
+        if (hasText(searchQuery.category())) {
+            specification = specification.and(hasCategory(searchQuery.category()));
+        }
+        if (hasText(searchQuery.name())) {
+            specification = specification.and(nameContains(searchQuery.name()));
+        }
+        if (hasText(searchQuery.ingredient())) {
+            specification = specification.and(hasIngredientWords(searchQuery.ingredient(), ingredientDictionary));
+        }
+        if (searchQuery.from() != null) {
+            specification = specification.and(addedFrom(searchQuery.from()));
+        }
+        if (searchQuery.to() != null) {
+            specification = specification.and(addedTo(searchQuery.to()));
+        }
+        if (hasText(searchQuery.author())) {
+            specification = specification.and(addedBy(searchQuery.author()));
+        }
+        return specification;
+    }
+
+    public static Specification<Recipe> hasCategory(String category) {
+        return (root, query, cb) ->
+                cb.equal(cb.lower(root.<String>get("category")), category.toLowerCase(Locale.ROOT));
+    }
+
+    public static Specification<Recipe> nameContains(String name) {
+        return (root, query, cb) -> cb.like(cb.lower(root.<String>get("name")), containsPattern(name), '\\');
+    }
+
+    // Matches the same recipes as an ingredient search of the index, so adding another criterion only ever narrows the
+    // result: every word of one of the alternatives has to be a word of any of the recipe's ingredients. Words are
+    // resolved to the ids of the ingredients containing them up front, since splitting names into words isn't portable
+    // SQL
+    public static Specification<Recipe> hasIngredientWords(String ingredient,
+                                                           IngredientDictionary ingredientDictionary) {
+        List<List<Set<Long>>> groups = RecipeIndex.groups(ingredient).stream()
+                .map(words -> words.stream().distinct().map(ingredientDictionary::idsWithWord).toList())
+                .toList();
+        return (root, query, cb) -> cb.or(groups.stream()
+                .map(group -> cb.and(group.stream()
+                        .map(ids -> hasIngredientIn(ids, root, query, cb))
+                        .toArray(Predicate[]::new)))
+                .toArray(Predicate[]::new));
+    }
+
+    // An exists() subquery rather than a join, so recipes with several matching ingredients aren't returned twice
+    private static Predicate hasIngredientIn(Set<Long> ids, Root<Recipe> root, CriteriaQuery<?> query,
+                                             CriteriaBuilder cb) {
+        if (ids.isEmpty()) {
+            return cb.disjunction();
+        }
+        List<Long> sorted = ids.stream().sorted().toList();
+        Subquery<Long> subquery = query.subquery(Long.class);
+        Root<Recipe> recipe = subquery.from(Recipe.class);
+        Join<Recipe, Ingredient> ingredients = recipe.join("ingredientEntries");
+        List<Predicate> chunks = new ArrayList<>();
+        for (int i = 0; i < sorted.size(); i += IngredientDictionary.CHUNK_SIZE) {
+            chunks.add(ingredients.<Long>get("id").in(
+                    sorted.subList(i, Math.min(i + IngredientDictionary.CHUNK_SIZE, sorted.size()))));
+        }
+        subquery.select(recipe.<Long>get("id")).where(
+                cb.equal(recipe.get("id"), root.get("id")),
+                cb.or(chunks.toArray(Predicate[]::new)));
+        return cb.exists(subquery);
+    }
+
+    public static Specification<Recipe> addedFrom(LocalDateTime from) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.<LocalDateTime>get("date"), from);
+    }
+
+    public static Specification<Recipe> addedTo(LocalDateTime to) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.<LocalDateTime>get("date"), to);
+    }
+
+    public static Specification<Recipe> addedBy(String author) {
+        return (root, query, cb) -> cb.equal(root.get("appUser").get("email"), author);
+    }
+
+    private static String containsPattern(String value) {
+        String escaped = value.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
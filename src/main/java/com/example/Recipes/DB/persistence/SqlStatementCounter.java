@@ -0,0 +1,32 @@
+package com.example.Recipes.DB.persistence;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.io.Serial;
+
+// Counts the SQL statements Hibernate prepares on the current thread between start() and stop(); registered with
+// Hibernate as its statement inspector (see MetricsConfig)
+public class SqlStatementCounter implements StatementInspector {
+    @Serial
+    private static final long serialVersionUID = 1L;
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    public static void start() {
+        COUNT.set(new int[1]);
+    }
+
+    public static int stop() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count == null ? 0 : count[0];
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.Recipes.DB.persistence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory trigram index over recipe names, answering "name contains x" without scanning every name
+public class TrigramIndex {
+    public record Match(long id, double score) { }
+
+    private final Map<Long, String> names = new ConcurrentHashMap<>();
+    private final InvertedIndex invertedIndex = new InvertedIndex();
+
+    public void put(long id, String name) {
+        String normalized = normalize(name);
+        names.put(id, normalized);
+        invertedIndex.put(id, trigrams(normalized));
+    }
+
+    public void remove(long id) {
+        names.remove(id);
+        invertedIndex.remove(id);
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    // Returns all names containing the search term, most similar (shared trigrams over all trigrams) first
+    public List<Match> search(String search) {
+        String term = normalize(search);
+        Set<String> termTrigrams = trigrams(term);
+        List<Match> matches = new ArrayList<>();
+        for (long id : candidates(termTrigrams)) {
+            String name = names.get(id);
+            if (name != null && name.contains(term)) {
+                matches.add(new Match(id, similarity(termTrigrams, trigrams(name))));
+            }
+        }
+        matches.sort(Comparator.comparingDouble(Match::score).reversed());
+        return matches;
+    }
+
+    private Collection<Long> candidates(Set<String> termTrigrams) {
+        if (termTrigrams.isEmpty()) {
+            // Terms shorter than a trigram can't be looked up, but checking names in memory is still cheap
+            return names.keySet();
+        }
+        List<List<String>> clauses = termTrigrams.stream().map(List::of).toList();
+        return Arrays.stream(invertedIndex.search(List.of(clauses))).boxed().toList();
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    static Set<String> trigrams(String text) {
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            trigrams.add(text.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    private static double similarity(Set<String> a, Set<String> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0;
+        }
+        int shared = 0;
+        for (String trigram : a) {
+            if (b.contains(trigram)) {
+                shared++;
+            }
+        }
+        return (double) shared / (a.size() + b.size() - shared);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.Recipes.DB.persistence;
+
+import com.example.Recipes.DB.business.Recipe;
+import com.example.Recipes.DB.business.RecipeSummary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// PostgreSQL only: a GIN index with pg_trgm operators (see V5__Search_indexes.sql) lets LIKE '%x%' use an index and
+// gives us similarity() to rank by
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "recipes.search.backend", havingValue = "postgres-trigram")
+public class TrigramRecipeNameSearch implements RecipeNameSearch {
+    private final RecipeRepository recipeRepository;
+
+    @Override
+    public List<Recipe> searchByName(String search) {
+        return recipeRepository.findByNameTrigramSimilarity(RecipeRepository.escapeLike(search), search);
+    }
+
+    @Override
+    public List<RecipeSummary> searchSummariesByName(String search) {
+        return recipeRepository.findSummariesByNameTrigramSimilarity(RecipeRepository.escapeLike(search), search);
+    }
+}
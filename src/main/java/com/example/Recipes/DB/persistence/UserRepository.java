@@ -1,8 +1,25 @@
 package com.example.Recipes.DB.persistence;
 
 import com.example.Recipes.DB.business.AppUser;
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
-public interface UserRepository extends CrudRepository<AppUser, String> { }
\ No newline at end of file
+public interface UserRepository extends JpaRepository<AppUser, String> {
+
+    // Returns 0 if the email is already taken
+    @Transactional
+    @Modifying
+    @Query(value = "insert into app_user (email, password) select :email, :password " +
+            "where not exists (select 1 from app_user where email = :email)", nativeQuery = true)
+    int insertIfAbsent(@Param("email") String email, @Param("password") String password);
+
+    @Transactional
+    @Modifying
+    @Query("update AppUser u set u.password = :password where u.email = :email")
+    int updatePassword(@Param("email") String email, @Param("password") String password);
+}
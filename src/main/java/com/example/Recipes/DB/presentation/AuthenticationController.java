@@ -2,37 +2,56 @@ package com.example.Recipes.DB.presentation;
 
 import com.example.Recipes.DB.business.AppUser;
 import com.example.Recipes.DB.business.AppUserService;
+import com.example.Recipes.DB.business.TokenAuthenticationFilter;
+import com.example.Recipes.DB.business.TokenService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 import jakarta.validation.Valid;
-import java.util.logging.Logger;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @Validated
 @RequiredArgsConstructor
 public class AuthenticationController {
     private final AppUserService appUserService;
-    private final Logger LOGGER = Logger.getLogger(RecipeController.class.getName());
+    private final TokenService tokenService;
+    private final Logger LOGGER = LoggerFactory.getLogger(AuthenticationController.class);
 
     @Operation(summary = "Register as a new user")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "User successfully created", content = @Content),
-            @ApiResponse(responseCode = "400", description = "Invalid credentials provided", content = @Content)})
+            @ApiResponse(responseCode = "400", description = "Invalid credentials provided", content = @Content),
+            @ApiResponse(responseCode = "429", description = "Too many registrations in progress, retry later", content = @Content)})
     @PostMapping("/api/register")
-    public ResponseEntity<AppUser> registerUser(@Valid @RequestBody AppUser appUser) {
-        LOGGER.info("New user registration request received for '" + appUser.getEmail() + "'.");
-        if (appUserService.add(appUser)) {
-            return new ResponseEntity<>(HttpStatus.OK);
-        }
-        return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    public CompletableFuture<ResponseEntity<AppUser>> registerUser(@Valid @RequestBody AppUser appUser) {
+        LOGGER.info("New user registration request received for '{}'.", appUser.getEmail());
+        return appUserService.add(appUser).thenApply(result -> switch (result) {
+            case SUCCESS -> new ResponseEntity<>(HttpStatus.OK);
+            case ALREADY_EXISTS -> new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            case OVERLOADED -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1").build();
+        });
+    }
+
+    @Operation(summary = "Exchange your credentials (HTTP Basic) for a short-lived bearer token")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Token issued"),
+            @ApiResponse(responseCode = "401", description = "Unauthorised", content = @Content)})
+    @PostMapping(TokenAuthenticationFilter.LOGIN_PATH)
+    public ResponseEntity<TokenService.Token> login(Authentication authentication) {
+        LOGGER.info("Login request from user '{}' received.", authentication.getName());
+        return new ResponseEntity<>(tokenService.issue(authentication.getName()), HttpStatus.OK);
     }
 }
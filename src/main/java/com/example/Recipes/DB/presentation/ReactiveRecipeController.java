@@ -0,0 +1,81 @@
+package com.example.Recipes.DB.presentation;
+
+import com.example.Recipes.DB.business.ReactiveRecipeService;
+import com.example.Recipes.DB.business.Recipe;
+import com.example.Recipes.DB.business.RecipeService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static com.example.Recipes.DB.business.SamplingTurboFilter.SAMPLED;
+
+// Read-only counterpart of RecipeController on R2DBC; results are written as the database returns them and reading
+// slows down with the client instead of buffering
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/reactive/recipe")
+@ConditionalOnProperty(name = "recipes.reactive.enabled", havingValue = "true")
+public class ReactiveRecipeController {
+    private final ReactiveRecipeService reactiveRecipeService;
+    private final Logger LOGGER = LoggerFactory.getLogger(ReactiveRecipeController.class);
+
+    @Operation(summary = "Get a recipe")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Success - recipe found and returned as JSON",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Recipe.class))}),
+            @ApiResponse(responseCode = "401", description = "User not authorised", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Recipe not found", content = @Content)})
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Recipe>> getRecipe(@PathVariable long id) {
+        LOGGER.info(SAMPLED, "Reactive GET request for recipe (id={}) received.", id);
+        return reactiveRecipeService.get(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @Operation(summary = "Stream all recipes matching a category or name")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Success - matching recipes, newest first, one JSON " +
+                    "object per line",
+                    content = {@Content(mediaType = "application/x-ndjson",
+                            array = @ArraySchema(schema = @Schema(implementation = Recipe.class)))}),
+            @ApiResponse(responseCode = "400", description = "Not exactly one of category and name provided",
+                    content = @Content),
+            @ApiResponse(responseCode = "401", description = "User not authorised", content = @Content)})
+    @GetMapping(value = "/search", produces = {"application/x-ndjson", MediaType.APPLICATION_JSON_VALUE})
+    public Flux<Recipe> searchRecipes(@RequestParam(required = false)
+                                      @Parameter(description = "Return any recipe with this exact category",
+                                              example = "Beverage")
+                                      String category,
+                                      @RequestParam(required = false)
+                                      @Parameter(description = "Return any recipe names containing this string",
+                                              example = "Mint")
+                                      String name) {
+        LOGGER.info(SAMPLED, "Reactive GET request with search parameters received - category={}, name={}.",
+                category, name);
+        boolean byCategory = category != null && !category.isEmpty();
+        boolean byName = name != null && !name.isEmpty();
+        if (byCategory == byName) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST));
+        }
+        return byCategory
+                ? reactiveRecipeService.search(category.toLowerCase(), RecipeService.SearchCriterion.CATEGORY)
+                : reactiveRecipeService.search(name.toLowerCase(), RecipeService.SearchCriterion.NAME);
+    }
+}
@@ -1,8 +1,16 @@
 package com.example.Recipes.DB.presentation;
 
 import com.example.Recipes.DB.business.Recipe;
+import com.example.Recipes.DB.business.RecipeImportResult;
+import com.example.Recipes.DB.business.RecipeImportService;
+import com.example.Recipes.DB.business.RecipePage;
+import com.example.Recipes.DB.business.RecipeSearchQuery;
 import com.example.Recipes.DB.business.RecipeService;
+import com.example.Recipes.DB.business.RecipeSummary;
+import com.example.Recipes.DB.business.RecipeVersion;
 import com.example.Recipes.DB.business.AppUserService;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -11,19 +19,33 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.logging.Logger;
+
+import static com.example.Recipes.DB.business.SamplingTurboFilter.SAMPLED;
 
 
 @RestController
@@ -31,31 +53,104 @@ import java.util.logging.Logger;
 @RequiredArgsConstructor
 @RequestMapping("/api/recipe")
 public class RecipeController {
+    private static final List<MediaType> FORMATS = List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR,
+            MediaType.valueOf("application/x-jackson-smile"));
+
     private final RecipeService recipeService;
+    private final RecipeImportService recipeImportService;
     private final AppUserService appUserService;
-    private final Logger LOGGER = Logger.getLogger(RecipeController.class.getName());
+    private final ObjectMapper objectMapper;
+    private final Logger LOGGER = LoggerFactory.getLogger(RecipeController.class);
 
+    // The body is written as JSON, CBOR or Smile depending on the Accept header, so caches must not mix them up
     private HttpHeaders getDefaultHeaders() {
         HttpHeaders responseHeaders = new HttpHeaders();
-        responseHeaders.set("Content-Type", "application/json");
+        responseHeaders.setVary(List.of(HttpHeaders.ACCEPT));
         return responseHeaders;
     }
 
+    record Search(String term, RecipeService.SearchCriterion criterion) { }
+
+    // Returns the one search criterion that was provided or null if there is none or more than one; package-private
+    // for SearchResolutionBenchmark
+    Search resolveSearch(String... strings) {
+        RecipeService.SearchCriterion searchCriterion = RecipeService.SearchCriterion.UNDEFINED;
+        String nonEmptyString = null;
+        for (int i = 0; i < strings.length; i++) {
+            String str = strings[i];
+            if (str != null && !str.isEmpty()) {
+                if (nonEmptyString == null) {
+                    nonEmptyString = str;
+                    searchCriterion = searchCriterion.findById(i + 1);
+                } else {
+                    return null;
+                }
+            }
+        }
+        return nonEmptyString == null ? null : new Search(nonEmptyString.toLowerCase(), searchCriterion);
+    }
+
     @Operation(summary = "Get a recipe")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Success - recipe found and returned as JSON",
+            @ApiResponse(responseCode = "200", description = "Success - recipe found and returned as JSON, or as " +
+                    "CBOR or Smile if accepted",
                     content = {@Content(mediaType = "application/json",
                             schema = @Schema(implementation = Recipe.class))}),
+            @ApiResponse(responseCode = "304", description = "Recipe has not changed since the version in " +
+                    "If-None-Match or If-Modified-Since", content = @Content),
             @ApiResponse(responseCode = "401", description = "User not authorised", content = @Content),
             @ApiResponse(responseCode = "404", description = "Recipe not found", content = @Content)})
     @GetMapping("/{id}")
-    public ResponseEntity<Recipe> getRecipe(@PathVariable long id) {
-        LOGGER.info("GET request for recipe (id=" + id + ") received.");
+    public ResponseEntity<Recipe> getRecipe(@PathVariable long id, HttpServletRequest request) {
+        LOGGER.info(SAMPLED, "GET request for recipe (id={}) received.", id);
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null) {
+            // Only the date is read to answer this, ingredients and directions are neither loaded nor serialised
+            RecipeVersion version = recipeService.getVersion(id);
+            if (version != null && new ServletWebRequest(request)
+                    .checkNotModified(version.eTag(getFormat(request)), version.lastModified())) {
+                return new ResponseEntity<>(null, getVersionHeaders(version, request), HttpStatus.NOT_MODIFIED);
+            }
+        }
         Recipe recipe = recipeService.get(id);
         if (recipe == null) {
             return new ResponseEntity<>(null, getDefaultHeaders(), HttpStatus.NOT_FOUND);
         }
-        return new ResponseEntity<>(recipe, getDefaultHeaders(), HttpStatus.OK);
+        HttpHeaders headers = getDefaultHeaders();
+        RecipeVersion version = RecipeVersion.of(recipe);
+        if (version != null) {
+            headers.addAll(getVersionHeaders(version, request));
+        }
+        return new ResponseEntity<>(recipe, headers, HttpStatus.OK);
+    }
+
+    private HttpHeaders getVersionHeaders(RecipeVersion version, HttpServletRequest request) {
+        HttpHeaders responseHeaders = new HttpHeaders();
+        responseHeaders.setETag(version.eTag(getFormat(request)));
+        responseHeaders.setLastModified(version.lastModified());
+        return responseHeaders;
+    }
+
+    // The format the body is written in: the first of JSON, CBOR and Smile the Accept header allows, like Spring picks
+    // the converter, and JSON without an Accept header
+    private static String getFormat(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept != null) {
+            try {
+                List<MediaType> accepted = MediaType.parseMediaTypes(accept);
+                MimeTypeUtils.sortBySpecificity(accepted);
+                for (MediaType mediaType : accepted) {
+                    for (MediaType format : FORMATS) {
+                        if (mediaType.isCompatibleWith(format)) {
+                            return format.getSubtype();
+                        }
+                    }
+                }
+            } catch (InvalidMediaTypeException e) {
+                // Answered with 406 by Spring, the ETag doesn't matter
+            }
+        }
+        return MediaType.APPLICATION_JSON.getSubtype();
     }
 
     @Operation(summary = "Add a recipe")
@@ -69,10 +164,29 @@ public class RecipeController {
     public ResponseEntity<Map<String, Long>> addRecipe(@Valid @RequestBody Recipe recipe,
                                                        Authentication authentication) {
         recipe.setAppUser(appUserService.get(authentication.getName()));
-        LOGGER.info("POST request received for: " + recipe);
+        LOGGER.info("POST request received for recipe '{}'.", recipe.getName());
         return ResponseEntity.ok(Collections.singletonMap("id", recipeService.add(recipe, false).getId()));
     }
 
+    @Operation(summary = "Import many recipes at once")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished - returns the number of imported " +
+                    "recipes and the rows that could not be imported",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = RecipeImportResult.class))}),
+            @ApiResponse(responseCode = "401", description = "User not authorised", content = @Content)})
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    public ResponseEntity<RecipeImportResult> importRecipes(HttpServletRequest request,
+                                                            Authentication authentication) throws IOException {
+        LOGGER.info("Import request from user '{}' received.", authentication.getName());
+        // Reads a JSON array or newline-delimited JSON one recipe at a time, so the body is never held in memory
+        try (MappingIterator<Recipe> recipes = objectMapper.readerFor(Recipe.class)
+                .readValues(request.getInputStream())) {
+            RecipeImportResult result = recipeImportService.importRecipes(recipes, authentication.getName());
+            return new ResponseEntity<>(result, getDefaultHeaders(), HttpStatus.OK);
+        }
+    }
+
     @Operation(summary = "Update an existing recipe")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Success - recipe found and updated",
@@ -80,25 +194,24 @@ public class RecipeController {
             @ApiResponse(responseCode = "401", description = "User not authorised", content = @Content),
             @ApiResponse(responseCode = "403", description = "Requester is not the owner of the recipe, " +
                     "cannot update another users recipes", content = @Content),
-            @ApiResponse(responseCode = "404", description = "Recipe not found", content = @Content)})
+            @ApiResponse(responseCode = "404", description = "Recipe not found", content = @Content),
+            @ApiResponse(responseCode = "412", description = "Recipe has changed since the version in If-Match",
+                    content = @Content)})
     @PutMapping("/{id}")
     public ResponseEntity<Map<String, Long>> updateRecipe(@PathVariable long id,
                                                           @Valid @RequestBody Recipe recipe,
+                                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                          String ifMatch,
                                                           Authentication authentication) {
-        recipe.setId(id);
-        recipe.setAppUser(appUserService.get(authentication.getName()));
-        LOGGER.info("PUT request received for: " + recipe);
-        if (recipeService.get(id) == null) {
-            LOGGER.warning("Recipe doesn't exist. Request declined.");
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
-        } else if (recipeService.get(id).getAppUser().getEmail().equals(authentication.getName())) {
-            LOGGER.info("User is the owner of the recipe and is allowed to update it.");
-            return new ResponseEntity<>(Collections.singletonMap("id", recipeService.add(recipe, false)
-                    .getId()), getDefaultHeaders(), HttpStatus.NO_CONTENT);
-        } else {
-            LOGGER.warning("User is not the owner of the recipe or it doesn't exist. Request declined.");
-            throw new ResponseStatusException(HttpStatus.FORBIDDEN);
-        }
+        recipe.setAppUser(appUserService.getReference(authentication.getName()));
+        LOGGER.info("PUT request received for recipe (id={}).", id);
+        return switch (recipeService.update(id, recipe, authentication.getName(), ifMatch)) {
+            case SUCCESS -> new ResponseEntity<>(Collections.singletonMap("id", id), getDefaultHeaders(),
+                    HttpStatus.NO_CONTENT);
+            case NOT_FOUND -> throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+            case FORBIDDEN -> throw new ResponseStatusException(HttpStatus.FORBIDDEN);
+            case PRECONDITION_FAILED -> throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED);
+        };
     }
 
     @Operation(summary = "Delete an existing recipe")
@@ -112,30 +225,100 @@ public class RecipeController {
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteRecipe(@PathVariable long id,
                                           Authentication authentication) {
-        LOGGER.info("DELETE request for recipe " + id + " from user '" + authentication.getName() + "' received.");
-        if (recipeService.get(id) == null) {
-            LOGGER.warning("Recipe doesn't exist. Request declined.");
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
-        } else if (recipeService.get(id).getAppUser().getEmail().equals(authentication.getName())) {
-            LOGGER.info("User is the owner of the recipe and is allowed to delete it.");
-            recipeService.delete(id);
-            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
-        } else {
-            LOGGER.warning("User is not the owner of the recipe or it doesn't exist. Request declined.");
-            throw new ResponseStatusException(HttpStatus.FORBIDDEN);
+        LOGGER.info("DELETE request for recipe {} from user '{}' received.", id, authentication.getName());
+        return switch (recipeService.delete(id, authentication.getName())) {
+            case SUCCESS -> new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            case NOT_FOUND -> throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+            case FORBIDDEN -> throw new ResponseStatusException(HttpStatus.FORBIDDEN);
+            case PRECONDITION_FAILED -> throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED);
+        };
+    }
+
+    @Operation(summary = "Delete many of your recipes at once")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Success - returns the number of deleted recipes",
+                    content = {@Content(mediaType = "application/json", schema = @Schema)}),
+            @ApiResponse(responseCode = "400", description = "Neither or both of category and id provided",
+                    content = @Content),
+            @ApiResponse(responseCode = "401", description = "User not authorised", content = @Content)})
+    @DeleteMapping("/bulk")
+    public ResponseEntity<Map<String, Integer>> deleteRecipes(@RequestParam(required = false)
+                                                              @Parameter(
+                                                                      description = "Delete all of your recipes " +
+                                                                              "in this category",
+                                                                      example = "Beverage")
+                                                              String category,
+                                                              @RequestParam(name = "id", required = false)
+                                                              @Parameter(
+                                                                      description = "Delete those of these " +
+                                                                              "recipes that are yours",
+                                                                      example = "1,2,3")
+                                                              List<Long> ids,
+                                                              Authentication authentication) {
+        LOGGER.info("Bulk DELETE request from user '{}' received - category={}, ids={}.", authentication.getName(),
+                category, ids == null ? null : ids.size());
+        if (hasText(category) == (ids != null && !ids.isEmpty())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Provide either category or id");
+        }
+        int deleted = ids == null || ids.isEmpty()
+                ? recipeService.deleteByCategory(authentication.getName(), category)
+                : recipeService.deleteByIds(authentication.getName(), ids);
+        return new ResponseEntity<>(Collections.singletonMap("deleted", deleted), getDefaultHeaders(), HttpStatus.OK);
+    }
+
+    @Operation(summary = "Move many of your recipes to another category at once")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Success - returns the number of updated recipes",
+                    content = {@Content(mediaType = "application/json", schema = @Schema)}),
+            @ApiResponse(responseCode = "400", description = "No new category or neither or both of from and id " +
+                    "provided", content = @Content),
+            @ApiResponse(responseCode = "401", description = "User not authorised", content = @Content)})
+    @PutMapping("/bulk/category")
+    public ResponseEntity<Map<String, Integer>> recategorizeRecipes(@RequestParam
+                                                                    @Parameter(
+                                                                            description = "The new category",
+                                                                            example = "Drinks")
+                                                                    String category,
+                                                                    @RequestParam(required = false)
+                                                                    @Parameter(
+                                                                            description = "Move all of your " +
+                                                                                    "recipes in this category",
+                                                                            example = "Beverage")
+                                                                    String from,
+                                                                    @RequestParam(name = "id", required = false)
+                                                                    @Parameter(
+                                                                            description = "Move those of these " +
+                                                                                    "recipes that are yours",
+                                                                            example = "1,2,3")
+                                                                    List<Long> ids,
+                                                                    Authentication authentication) {
+        LOGGER.info("Bulk PUT request from user '{}' received - category={}, from={}, ids={}.",
+                authentication.getName(), category, from, ids == null ? null : ids.size());
+        if (!hasText(category) || hasText(from) == (ids != null && !ids.isEmpty())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Provide a category and either from or id");
         }
+        int updated = ids == null || ids.isEmpty()
+                ? recipeService.recategorizeByCategory(authentication.getName(), from, category)
+                : recipeService.recategorizeByIds(authentication.getName(), ids, category);
+        return new ResponseEntity<>(Collections.singletonMap("updated", updated), getDefaultHeaders(), HttpStatus.OK);
+    }
+
+    private static boolean hasText(String string) {
+        return string != null && !string.isBlank();
     }
 
     @Operation(summary = "Search all existing recipes")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Success - recipe found and updated",
+            @ApiResponse(responseCode = "200", description = "Success - matching recipes, or only the requested " +
+                    "fields of each if fields are given",
                     content = {@Content(mediaType = "application/json",
                             array = @ArraySchema(schema = @Schema(implementation = Recipe.class)))}),
-            @ApiResponse(responseCode = "400", description = "Invalid search criteria (likely none provided)", content = @Content),
+            @ApiResponse(responseCode = "400", description = "Invalid search criteria (likely none provided) or " +
+                    "unknown fields", content = @Content),
             @ApiResponse(responseCode = "401", description = "User not authorised", content = @Content),
             @ApiResponse(responseCode = "404", description = "No matching recipes found", content = @Content)})
     @GetMapping("/search")
-    public ResponseEntity<List<Recipe>> searchRecipes(@RequestParam(required = false)
+    public ResponseEntity<List<?>> searchRecipes(@RequestParam(required = false)
                                                       @Parameter(
                                                               description = "Return any recipe with this exact category",
                                                               example = "Beverage")
@@ -144,34 +327,175 @@ public class RecipeController {
                                                       @Parameter(
                                                               description = "Return any recipe names containing this string",
                                                               example = "Mint")
-                                                      String name) {
-        LOGGER.info("GET request with search parameters received - category=" + category + ", name=" + name + ".");
+                                                      String name,
+                                                      @RequestParam(required = false)
+                                                      @Parameter(
+                                                              description = "Return any recipe with ingredients " +
+                                                                      "containing all of these words, alternatives " +
+                                                                      "can be separated by 'or'",
+                                                              example = "basil garlic")
+                                                      String ingredient,
+                                                      @RequestParam(required = false)
+                                                      @Parameter(
+                                                              description = "Return any recipe with all of these " +
+                                                                      "words in its name, description, ingredients " +
+                                                                      "or directions, alternatives can be separated " +
+                                                                      "by 'or'",
+                                                              example = "mint or lemon")
+                                                      String text,
+                                                      @RequestParam(required = false)
+                                                      @Parameter(
+                                                              description = "Return any recipe with an ingredient " +
+                                                                      "matching this exactly, ignoring case",
+                                                              example = "fresh mint leaves")
+                                                      String uses,
+                                                      @RequestParam(required = false)
+                                                      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                      @Parameter(
+                                                              description = "Return any recipe added or updated " +
+                                                                      "at or after this time",
+                                                              example = "2023-01-01T00:00:00")
+                                                      LocalDateTime from,
+                                                      @RequestParam(required = false)
+                                                      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                      @Parameter(
+                                                              description = "Return any recipe added or updated " +
+                                                                      "at or before this time",
+                                                              example = "2023-12-31T23:59:59")
+                                                      LocalDateTime to,
+                                                      @RequestParam(required = false)
+                                                      @Parameter(
+                                                              description = "Return any recipe added by this user",
+                                                              example = "test@email.com")
+                                                      String author,
+                                                      @RequestParam(required = false)
+                                                      @Parameter(
+                                                              description = "Only return these fields of each " +
+                                                                      "recipe, any of id, name, category and date " +
+                                                                      "separated by commas",
+                                                              example = "id,name,category,date")
+                                                      String fields) {
+        LOGGER.info(SAMPLED, "GET request with search parameters received - category={}, name={}, ingredient={}, " +
+                "text={}, uses={}, from={}, to={}, author={}, fields={}.", category, name, ingredient, text, uses, from,
+                to, author, fields);
+        List<String> selectedFields = fields == null ? null : parseFields(fields);
+        if (fields != null && selectedFields == null) {
+            return new ResponseEntity<>(null, getDefaultHeaders(), HttpStatus.BAD_REQUEST);
+        }
 
-        // Check which, if any, RequestParam's are not null and not empty
-        RecipeService.SearchCriterion searchCriterion = RecipeService.SearchCriterion.UNDEFINED;
-        String nonEmptyString = null;
-        String[] strings = new String[] {category, name};
-        for (int i = 0; i < strings.length; i++) {
-            String str = strings[i];
-            if (str != null && !str.isEmpty()) {
-                if (nonEmptyString == null) {
-                    nonEmptyString = str;
-                    searchCriterion = searchCriterion.findById(i + 1);
-                } else {
-                    nonEmptyString = null;
-                    break;
-                }
+        // Any combination other than a single criterion is composed into one query, except for text searches which
+        // are only answered by the search index and ingredient lookups which are only answered on their own
+        Search search = resolveSearch(category, name, ingredient, text, uses);
+        boolean composed = from != null || to != null || (author != null && !author.isEmpty());
+        if (search == null || composed) {
+            RecipeSearchQuery searchQuery = new RecipeSearchQuery(category, name, ingredient, from, to, author);
+            if ((text != null && !text.isEmpty()) || (uses != null && !uses.isEmpty()) || searchQuery.isEmpty()) {
+                return new ResponseEntity<>(null, getDefaultHeaders(), HttpStatus.BAD_REQUEST);
             }
+            List<?> result = selectedFields == null
+                    ? recipeService.search(searchQuery)
+                    : select(recipeService.searchSummaries(searchQuery), selectedFields);
+            return new ResponseEntity<>(result, getDefaultHeaders(), HttpStatus.OK);
         }
 
         // Attempt search and return result
-        if (nonEmptyString != null) {
-            List<Recipe> result = recipeService.search(nonEmptyString.toLowerCase(), searchCriterion);
-            if (result == null) {
-                return new ResponseEntity<>(null, getDefaultHeaders(), HttpStatus.NOT_FOUND);
+        List<?> result = selectedFields == null
+                ? recipeService.search(search.term(), search.criterion())
+                : select(recipeService.searchSummaries(search.term(), search.criterion()), selectedFields);
+        if (result == null) {
+            return new ResponseEntity<>(null, getDefaultHeaders(), HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(result, getDefaultHeaders(), HttpStatus.OK);
+    }
+
+    // Sparse fieldsets are limited to the columns of a RecipeSummary, so that they never need the full recipe
+    private static List<String> parseFields(String fields) {
+        List<String> parsed = Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .distinct()
+                .toList();
+        return !parsed.isEmpty() && RecipeSummary.FIELDS.containsAll(parsed) ? parsed : null;
+    }
+
+    private static List<Map<String, Object>> select(List<RecipeSummary> summaries, List<String> fields) {
+        return summaries == null ? null : summaries.stream().map(summary -> summary.select(fields)).toList();
+    }
+
+    @Operation(summary = "Search all existing recipes, one page at a time")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Success - page of recipes and cursor for the next page",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = RecipePage.class))}),
+            @ApiResponse(responseCode = "400", description = "Invalid search criteria or cursor", content = @Content),
+            @ApiResponse(responseCode = "401", description = "User not authorised", content = @Content)})
+    @GetMapping("/search/page")
+    public ResponseEntity<RecipePage> searchRecipesPage(@RequestParam(required = false)
+                                                        @Parameter(
+                                                                description = "Return any recipe with this exact category",
+                                                                example = "Beverage")
+                                                        String category,
+                                                        @RequestParam(required = false)
+                                                        @Parameter(
+                                                                description = "Return any recipe names containing this string",
+                                                                example = "Mint")
+                                                        String name,
+                                                        @RequestParam(required = false)
+                                                        @Parameter(description = "Cursor returned with the previous page")
+                                                        String cursor,
+                                                        @RequestParam(defaultValue = "" + RecipeService.DEFAULT_PAGE_SIZE)
+                                                        @Parameter(description = "Page size, capped at " +
+                                                                RecipeService.MAX_PAGE_SIZE)
+                                                        int size) {
+        LOGGER.info(SAMPLED, "GET request for search page received - category={}, name={}, cursor={}, size={}.",
+                category, name, cursor, size);
+        Search search = resolveSearch(category, name);
+        if (search == null) {
+            return new ResponseEntity<>(null, getDefaultHeaders(), HttpStatus.BAD_REQUEST);
+        }
+        try {
+            RecipePage page = recipeService.searchPage(search.term(), search.criterion(), cursor, size);
+            if (page == null) {
+                return new ResponseEntity<>(null, getDefaultHeaders(), HttpStatus.BAD_REQUEST);
             }
-            return new ResponseEntity<>(result, getDefaultHeaders(), HttpStatus.OK);
+            return new ResponseEntity<>(page, getDefaultHeaders(), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn(e.getMessage());
+            return new ResponseEntity<>(null, getDefaultHeaders(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @Operation(summary = "Export all matching recipes as newline-delimited JSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Success - one recipe per line",
+                    content = {@Content(mediaType = "application/x-ndjson",
+                            schema = @Schema(implementation = Recipe.class))}),
+            @ApiResponse(responseCode = "400", description = "Invalid search criteria (likely none provided)", content = @Content),
+            @ApiResponse(responseCode = "401", description = "User not authorised", content = @Content)})
+    @GetMapping(value = "/search/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamRecipes(@RequestParam(required = false)
+                                                               @Parameter(
+                                                                       description = "Return any recipe with this exact category",
+                                                                       example = "Beverage")
+                                                               String category,
+                                                               @RequestParam(required = false)
+                                                               @Parameter(
+                                                                       description = "Return any recipe names containing this string",
+                                                                       example = "Mint")
+                                                               String name) {
+        LOGGER.info("GET request for search export received - category={}, name={}.", category, name);
+        Search search = resolveSearch(category, name);
+        if (search == null) {
+            return ResponseEntity.badRequest().build();
         }
-        return new ResponseEntity<>(null, getDefaultHeaders(), HttpStatus.BAD_REQUEST);
+        StreamingResponseBody body = outputStream -> recipeService.export(search.term(), search.criterion(), recipe -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(recipe));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
     }
 }
@@ -0,0 +1,30 @@
+-- The schema as spring.jpa.hibernate.ddl-auto=update created it before there were migrations. Databases created that
+-- way already have all of it and are baselined at this version (spring.flyway.baseline-on-migrate)
+create table app_user (
+    email varchar(255) not null,
+    password varchar(255),
+    primary key (email)
+);
+
+create table recipe (
+    id bigint generated by default as identity,
+    name varchar(255),
+    category varchar(255),
+    date timestamp(6),
+    description varchar(255),
+    added_by varchar(255),
+    primary key (id),
+    constraint fk_recipe_added_by foreign key (added_by) references app_user (email)
+);
+
+create table recipe_ingredients (
+    recipe_id bigint not null,
+    ingredients varchar(255),
+    constraint fk_recipe_ingredients_recipe_id foreign key (recipe_id) references recipe (id)
+);
+
+create table recipe_directions (
+    recipe_id bigint not null,
+    directions varchar(255),
+    constraint fk_recipe_directions_recipe_id foreign key (recipe_id) references recipe (id)
+);
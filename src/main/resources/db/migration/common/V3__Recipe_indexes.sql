@@ -0,0 +1,7 @@
+-- Searches by category, owner and date return the newest first
+create index if not exists idx_recipe_category_date on recipe (category, date);
+create index if not exists idx_recipe_added_by_date on recipe (added_by, date);
+create index if not exists idx_recipe_date on recipe (date);
+
+-- Directions are loaded by recipe_id. Ingredients are moved out of recipe_ingredients by V4, so it gets no index
+create index if not exists idx_recipe_directions_recipe_id on recipe_directions (recipe_id);
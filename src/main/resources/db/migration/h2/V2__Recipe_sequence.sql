@@ -0,0 +1,7 @@
+-- Pooled ids, Hibernate takes 50 per call (see Recipe.id). Databases baselined at V1 may have recipe_seq already
+create sequence if not exists recipe_seq start with 1 increment by 50;
+alter table recipe alter column id drop identity;
+
+-- Ids used to come from the IDENTITY column, so the sequence has to start above those already taken. A call returns
+-- the last id of a block of 50, hence max(id) + 51 (H2 has no setval)
+alter sequence recipe_seq restart with (select coalesce(max(id) + 51, 1) from recipe);
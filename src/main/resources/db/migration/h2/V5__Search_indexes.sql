@@ -0,0 +1,2 @@
+-- H2 has no indexes on expressions such as lower(category), so the search indexes of V5 for PostgreSQL have no
+-- counterpart here; the version is kept so that both databases have the same history
@@ -0,0 +1,7 @@
+-- Pooled ids, Hibernate takes 50 per call (see Recipe.id). Databases baselined at V1 may have recipe_seq already
+create sequence if not exists recipe_seq start with 1 increment by 50;
+alter table recipe alter column id drop identity if exists;
+
+-- Ids used to come from the IDENTITY column, so the sequence has to start above those already taken. A call returns
+-- the last id of a block of 50, hence max(id) + 1 for the next call to return max(id) + 51. Only ever moves forward
+select setval('recipe_seq', max(id) + 1) from recipe having max(id) >= (select last_value from recipe_seq);
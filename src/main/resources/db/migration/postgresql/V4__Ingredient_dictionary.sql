@@ -0,0 +1,37 @@
+-- Ingredients are stored once per distinct text and referenced by recipes with their position. Databases baselined at
+-- V1 may already have these tables from ddl-auto=update and their ingredients moved, hence "if not exists"
+create table if not exists ingredient (
+    id bigint generated by default as identity,
+    name varchar(255) not null,
+    primary key (id),
+    constraint uk_ingredient_name unique (name)
+);
+
+create table if not exists recipe_ingredient (
+    recipe_id bigint not null,
+    position integer not null,
+    ingredient_id bigint not null,
+    primary key (recipe_id, position),
+    constraint fk_recipe_ingredient_recipe_id foreign key (recipe_id) references recipe (id),
+    constraint fk_recipe_ingredient_ingredient_id foreign key (ingredient_id) references ingredient (id)
+);
+
+-- Recipes using an ingredient are found from the ingredient's id alone
+create index if not exists idx_recipe_ingredient_ingredient_id on recipe_ingredient (ingredient_id, recipe_id);
+
+-- Move the rows of the former element collection. It had no order column, so positions follow the order in which the
+-- rows are stored (ctid), which is the order in which Hibernate wrote and read them
+create table if not exists recipe_ingredients (
+    recipe_id bigint not null,
+    ingredients varchar(255)
+);
+
+insert into ingredient (name)
+select distinct ri.ingredients from recipe_ingredients ri
+where ri.ingredients is not null and not exists (select 1 from ingredient i where i.name = ri.ingredients);
+
+insert into recipe_ingredient (recipe_id, position, ingredient_id)
+select ri.recipe_id, row_number() over (partition by ri.recipe_id order by ri.ctid) - 1, i.id
+from recipe_ingredients ri join ingredient i on i.name = ri.ingredients;
+
+drop table recipe_ingredients;
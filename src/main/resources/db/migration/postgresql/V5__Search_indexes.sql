@@ -0,0 +1,15 @@
+-- Category searches compare lower(category) and return the newest first, with the id as tie-breaker for keyset
+-- pagination. Name and category are included so that summaries (?fields=) are read from the index alone
+create index idx_recipe_lower_category_date on recipe (lower(category), date desc, id desc) include (name, category);
+-- Every query on category compares it ignoring case, so the plain column index is never used
+drop index if exists idx_recipe_category_date;
+
+-- Bulk deletes and recategorisations select one owner's recipes of a category
+create index idx_recipe_added_by_lower_category on recipe (added_by, lower(category));
+
+-- ?uses= looks up the ingredient ignoring case
+create index idx_ingredient_lower_name on ingredient (lower(name));
+
+-- Name searches of recipes.search.backend=postgres-trigram, LIKE '%x%' and similarity() both use the trigram index
+create extension if not exists pg_trgm;
+create index if not exists recipe_name_trgm_idx on recipe using gin (lower(name) gin_trgm_ops);
@@ -1,18 +1,29 @@
 package com.example.Recipes.DB.business;
 
+import com.example.Recipes.DB.business.AppUserService.RegistrationResult;
 import com.example.Recipes.DB.persistence.UserRepository;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.*;
 
 @SpringBootTest
@@ -21,25 +32,50 @@ class AppUserServiceTest {
     @MockBean
     UserRepository userRepository;
 
+    @SpyBean
+    PasswordHasher passwordHasher;
+
     @Autowired
     AppUserService appUserService;
 
+    @Autowired
+    PasswordEncoder passwordEncoder;
+
     AppUser appUser = new AppUser("test@gmail.com", "password1", null);
 
     @Test
-    void givenNewUser_whenAdd_thenSucceed() {
-        when(userRepository.existsById(appUser.getEmail())).thenReturn(false);
-        when(userRepository.save(appUser)).thenReturn(appUser);
-        assertTrue(appUserService.add(appUser));
+    void givenNewUser_whenAdd_thenInsertHashedPassword() {
+        when(userRepository.insertIfAbsent(eq(appUser.getEmail()), anyString())).thenReturn(1);
+
+        assertEquals(RegistrationResult.SUCCESS, appUserService.add(appUser).join());
+
+        verify(userRepository).insertIfAbsent(eq(appUser.getEmail()),
+                argThat(encoded -> passwordEncoder.matches(appUser.getPassword(), encoded)));
+        verify(userRepository, never()).count();
+        verify(userRepository, never()).findById(any());
     }
 
     @Test
     void givenUserExists_whenAdd_thenFail() {
-        when(userRepository.existsById(appUser.getEmail())).thenReturn(true);
-        assertFalse(appUserService.add(appUser));
+        when(userRepository.insertIfAbsent(eq(appUser.getEmail()), anyString())).thenReturn(0);
+        assertEquals(RegistrationResult.ALREADY_EXISTS, appUserService.add(appUser).join());
         verify(userRepository, never()).save(any());
     }
 
+    @Test
+    void givenConcurrentRegistrationForSameEmail_whenAdd_thenFail() {
+        when(userRepository.insertIfAbsent(eq(appUser.getEmail()), anyString()))
+                .thenThrow(DataIntegrityViolationException.class);
+        assertEquals(RegistrationResult.ALREADY_EXISTS, appUserService.add(appUser).join());
+    }
+
+    @Test
+    void givenHashingQueueFull_whenAdd_thenOverloaded() {
+        doThrow(RejectedExecutionException.class).when(passwordHasher).hash(any());
+        assertEquals(RegistrationResult.OVERLOADED, appUserService.add(appUser).join());
+        verify(userRepository, never()).insertIfAbsent(any(), any());
+    }
+
     @Test
     void givenUserExists_whenGet_thenSucceed() {
         when(userRepository.findById(appUser.getEmail())).thenReturn(Optional.ofNullable(appUser));
@@ -64,4 +100,20 @@ class AppUserServiceTest {
         when(userRepository.findById(appUser.getEmail())).thenReturn(Optional.ofNullable(appUser));
         assertEquals(userDetails, appUserService.loadUserByUsername(appUser.getEmail()));
     }
-}
\ No newline at end of file
+
+    @Test
+    void givenPasswordHashedWithOldEncoder_whenLogin_thenRehash() {
+        AppUser legacyUser = new AppUser(appUser.getEmail(), new BCryptPasswordEncoder(4).encode("password1"), null);
+        when(userRepository.findById(appUser.getEmail())).thenReturn(Optional.of(legacyUser));
+        when(userRepository.updatePassword(eq(appUser.getEmail()), anyString())).thenReturn(1);
+        DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider();
+        daoAuthenticationProvider.setUserDetailsService(appUserService);
+        daoAuthenticationProvider.setPasswordEncoder(passwordEncoder);
+        daoAuthenticationProvider.setUserDetailsPasswordService(appUserService);
+
+        daoAuthenticationProvider.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated(appUser.getEmail(), "password1"));
+
+        verify(userRepository).updatePassword(eq(appUser.getEmail()), startsWith("{bcrypt}"));
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.Recipes.DB.business;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@Tag("unit")
+class AuthenticationCacheTest {
+    User user = new User("test@gmail.com", "$2a$10$hash", List.of());
+
+    @Test
+    void givenVerifiedCredentials_whenGet_thenHit() {
+        AuthenticationCache authenticationCache = new AuthenticationCache(Duration.ofMinutes(5), 10);
+        authenticationCache.put(user.getUsername(), "password1", user);
+        assertEquals(user.getUsername(), authenticationCache.get(user.getUsername(), "password1").getUsername());
+        assertEquals(1, authenticationCache.getHits());
+    }
+
+    @Test
+    void givenWrongPassword_whenGet_thenMiss() {
+        AuthenticationCache authenticationCache = new AuthenticationCache(Duration.ofMinutes(5), 10);
+        authenticationCache.put(user.getUsername(), "password1", user);
+        assertNull(authenticationCache.get(user.getUsername(), "password2"));
+        assertEquals(1, authenticationCache.getMisses());
+    }
+
+    @Test
+    void givenExpiredEntry_whenGet_thenMiss() {
+        AuthenticationCache authenticationCache = new AuthenticationCache(Duration.ZERO, 10);
+        authenticationCache.put(user.getUsername(), "password1", user);
+        assertNull(authenticationCache.get(user.getUsername(), "password1"));
+    }
+
+    @Test
+    void givenUserChanged_whenGet_thenMiss() {
+        AuthenticationCache authenticationCache = new AuthenticationCache(Duration.ofMinutes(5), 10);
+        authenticationCache.put(user.getUsername(), "password1", user);
+        authenticationCache.onAppUserChanged(new AppUserChangedEvent(user.getUsername()));
+        assertNull(authenticationCache.get(user.getUsername(), "password1"));
+    }
+
+    @Test
+    void givenCacheFull_whenPut_thenStayBounded() {
+        AuthenticationCache authenticationCache = new AuthenticationCache(Duration.ofMinutes(5), 2);
+        for (int i = 0; i < 5; i++) {
+            authenticationCache.put("user" + i + "@gmail.com", "password1", user);
+        }
+        assertTrue(authenticationCache.size() <= 2);
+    }
+
+    @Test
+    void givenRepeatedLogin_whenAuthenticate_thenDelegateOnlyOnce() {
+        AuthenticationProvider delegate = mock(AuthenticationProvider.class);
+        when(delegate.authenticate(any())).thenReturn(
+                UsernamePasswordAuthenticationToken.authenticated(user, "password1", user.getAuthorities()));
+        CachingAuthenticationProvider provider =
+                new CachingAuthenticationProvider(delegate, new AuthenticationCache(Duration.ofMinutes(5), 10));
+
+        Authentication first = provider.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated(user.getUsername(), "password1"));
+        Authentication second = provider.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated(user.getUsername(), "password1"));
+
+        assertTrue(first.isAuthenticated());
+        assertTrue(second.isAuthenticated());
+        assertEquals(user.getUsername(), second.getName());
+        verify(delegate, times(1)).authenticate(any());
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.Recipes.DB.business;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("unit")
+class PasswordConfigTest {
+    PasswordConfig passwordConfig = new PasswordConfig();
+
+    PasswordEncoder encoder(String algorithm, int bcryptStrength) {
+        return passwordConfig.passwordEncoder(algorithm, bcryptStrength, 1000, 1024, 1);
+    }
+
+    @Test
+    void whenEncode_thenPrefixWithConfiguredAlgorithm() {
+        PasswordEncoder argon2 = encoder("argon2", 4);
+
+        String encoded = argon2.encode("password1");
+
+        assertTrue(encoded.startsWith("{argon2}"));
+        assertTrue(argon2.matches("password1", encoded));
+        assertFalse(argon2.upgradeEncoding(encoded));
+    }
+
+    @Test
+    void givenUnprefixedBcryptHash_whenMatches_thenSucceedAndUpgrade() {
+        String legacy = new BCryptPasswordEncoder(4).encode("password1");
+        PasswordEncoder passwordEncoder = encoder("bcrypt", 4);
+
+        assertTrue(passwordEncoder.matches("password1", legacy));
+        assertFalse(passwordEncoder.matches("password2", legacy));
+        assertTrue(passwordEncoder.upgradeEncoding(legacy));
+    }
+
+    @Test
+    void givenHashFromOtherAlgorithm_whenMatches_thenSucceedAndUpgrade() {
+        String bcrypt = encoder("bcrypt", 4).encode("password1");
+        PasswordEncoder pbkdf2 = encoder("pbkdf2", 4);
+
+        assertTrue(pbkdf2.matches("password1", bcrypt));
+        assertTrue(pbkdf2.upgradeEncoding(bcrypt));
+    }
+
+    @Test
+    void givenHashWithLowerCost_whenUpgradeEncoding_thenTrue() {
+        String cheap = encoder("bcrypt", 4).encode("password1");
+        assertTrue(encoder("bcrypt", 5).upgradeEncoding(cheap));
+    }
+
+    @Test
+    void givenHashWithHigherCost_whenUpgradeEncoding_thenTrue() {
+        String expensive = encoder("bcrypt", 5).encode("password1");
+        assertTrue(encoder("bcrypt", 4).upgradeEncoding(expensive));
+        assertFalse(encoder("bcrypt", 5).upgradeEncoding(expensive));
+    }
+
+    @Test
+    void givenArgon2HashWithMoreMemory_whenUpgradeEncoding_thenTrue() {
+        String expensive = passwordConfig.passwordEncoder("argon2", 4, 1000, 2048, 1).encode("password1");
+        PasswordEncoder argon2 = encoder("argon2", 4);
+
+        assertTrue(argon2.matches("password1", expensive));
+        assertTrue(argon2.upgradeEncoding(expensive));
+    }
+
+    @Test
+    void givenPbkdf2HashWithOtherIterations_whenMatches_thenSucceedAndUpgrade() {
+        String encoded = encoder("pbkdf2", 4).encode("password1");
+        PasswordEncoder moreIterations = passwordConfig.passwordEncoder("pbkdf2", 4, 2000, 1024, 1);
+
+        assertTrue(encoded.startsWith("{pbkdf2}1000$"));
+        assertTrue(moreIterations.matches("password1", encoded));
+        assertFalse(moreIterations.matches("password2", encoded));
+        assertTrue(moreIterations.upgradeEncoding(encoded));
+        assertFalse(encoder("pbkdf2", 4).upgradeEncoding(encoded));
+    }
+
+    @Test
+    void givenPbkdf2HashWithoutIterations_whenMatches_thenUseLegacyIterations() {
+        String legacy = "{pbkdf2}" + new Pbkdf2PasswordEncoder("", 16, PasswordConfig.Pbkdf2.LEGACY_ITERATIONS,
+                Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256).encode("password1");
+        PasswordEncoder pbkdf2 = encoder("pbkdf2", 4);
+
+        assertTrue(pbkdf2.matches("password1", legacy));
+        assertTrue(pbkdf2.upgradeEncoding(legacy));
+    }
+
+    @Test
+    void givenUnknownAlgorithm_whenCreate_thenThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> encoder("md5", 4));
+    }
+
+    @Test
+    void givenBoundToRegistry_whenEncodeAndMatch_thenTimeBoth() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TimedPasswordEncoder passwordEncoder = passwordConfig.passwordEncoder("bcrypt", 4, 1000, 1024, 1);
+        passwordEncoder.bindTo(meterRegistry);
+
+        passwordEncoder.matches("password1", passwordEncoder.encode("password1"));
+
+        Timer encode = meterRegistry.get("recipes.password").tags("operation", "encode", "algorithm", "bcrypt").timer();
+        Timer matches = meterRegistry.get("recipes.password").tags("operation", "matches", "algorithm", "bcrypt").timer();
+        assertEquals(1, encode.count());
+        assertEquals(1, matches.count());
+    }
+}
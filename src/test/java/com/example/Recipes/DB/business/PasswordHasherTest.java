@@ -0,0 +1,61 @@
+package com.example.Recipes.DB.business;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("unit")
+class PasswordHasherTest {
+    CountDownLatch release = new CountDownLatch(1);
+    PasswordHasher passwordHasher = new PasswordHasher(new BlockingEncoder(release), 1, 1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        passwordHasher.shutdown();
+    }
+
+    @Test
+    void whenHash_thenEncodeOnHashingThread() {
+        release.countDown();
+        assertEquals("hashed:password1", passwordHasher.hash("password1").join());
+    }
+
+    @Test
+    void givenPoolAndQueueFull_whenHash_thenRejectImmediately() {
+        CompletableFuture<String> running = passwordHasher.hash("password1");
+        CompletableFuture<String> queued = passwordHasher.hash("password2");
+
+        assertThrows(RejectedExecutionException.class, () -> passwordHasher.hash("password3"));
+        assertEquals(1, passwordHasher.getRejected());
+
+        release.countDown();
+        assertEquals("hashed:password1", running.join());
+        assertEquals("hashed:password2", queued.join());
+        assertEquals(0, passwordHasher.getQueueSize());
+    }
+
+    private record BlockingEncoder(CountDownLatch release) implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hashed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword.equals("hashed:" + rawPassword);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.Recipes.DB.business;
+
+import com.example.Recipes.DB.persistence.IngredientDictionary;
+import com.example.Recipes.DB.persistence.LikeRecipeNameSearch;
+import com.example.Recipes.DB.persistence.RecipeIndex;
+import com.example.Recipes.DB.persistence.RecipeRepository;
+import com.example.Recipes.DB.persistence.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("unit")
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.order_updates=true",
+        "recipes.import.chunk-size=100"})
+@Import({RecipeImportService.class, RecipeService.class, RecipeSearchCache.class, LikeRecipeNameSearch.class,
+        RecipeIndex.class, IngredientDictionary.class, LocalValidatorFactoryBean.class, SimpleMeterRegistry.class})
+// Chunks are committed (or rolled back) by the import itself, so the test must not wrap it in a transaction
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RecipeImportServiceTest {
+    @Autowired
+    RecipeImportService recipeImportService;
+
+    @Autowired
+    RecipeRepository recipeRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    AppUser owner = new AppUser("importer@test.com", "password1", null);
+
+    static Recipe recipe(String name) {
+        return new Recipe(0, name, "Beverage", null, "Light and refreshing",
+                new ArrayList<>(List.of("boiled water", "fresh mint leaves")),
+                new ArrayList<>(List.of("Boil water", "Add fresh mint leaves")), null);
+    }
+
+    @BeforeEach
+    void setUp() {
+        userRepository.save(owner);
+        statistics().clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        recipeRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void givenManyRecipes_whenImport_thenInsertInBatches() {
+        List<Recipe> recipes = IntStream.range(0, 500).mapToObj(i -> recipe("Mint Tea " + i)).toList();
+
+        RecipeImportResult result = recipeImportService.importRecipes(recipes.iterator(), owner.getEmail());
+
+        assertEquals(new RecipeImportResult(500, 0, List.of()), result);
+        assertEquals(500, recipeRepository.count());
+        // One insert per row and table plus one sequence call per id would be 1500+ statements
+        assertTrue(statistics().getPrepareStatementCount() < 100,
+                "Statements prepared: " + statistics().getPrepareStatementCount());
+        assertEquals(owner.getEmail(), recipeRepository.findOwnerById(recipes.get(0).getId()).orElseThrow());
+    }
+
+    @Test
+    void givenInvalidRows_whenImport_thenReportThemAndImportOthers() {
+        Recipe noName = recipe("");
+        Recipe noIngredients = recipe("Empty Tea");
+        noIngredients.setIngredients(new ArrayList<>());
+
+        RecipeImportResult result = recipeImportService.importRecipes(
+                List.of(recipe("Mint Tea"), noName, recipe("Lemon Tea"), noIngredients).iterator(), owner.getEmail());
+
+        assertEquals(2, result.imported());
+        assertEquals(2, result.failed());
+        assertEquals(List.of(2, 4), result.errors().stream().map(RecipeImportResult.RowError::row).toList());
+        assertTrue(result.errors().get(0).message().startsWith("name: "));
+        assertEquals(2, recipeRepository.count());
+    }
+
+    @Test
+    void givenRowRejectedByDatabase_whenImport_thenImportRestOfChunk() {
+        Recipe tooLong = recipe("x".repeat(1000));
+
+        RecipeImportResult result = recipeImportService.importRecipes(
+                List.of(recipe("Mint Tea"), tooLong, recipe("Lemon Tea")).iterator(), owner.getEmail());
+
+        assertEquals(2, result.imported());
+        assertEquals(1, result.failed());
+        assertEquals(2, result.errors().get(0).row());
+        assertEquals(2, recipeRepository.count());
+    }
+
+    @Test
+    void givenUnreadableRow_whenImport_thenSkipIt() {
+        Iterator<Recipe> recipes = List.of(recipe("Mint Tea"), recipe("Lemon Tea")).iterator();
+        Iterator<Recipe> withBrokenRow = new Iterator<>() {
+            int calls;
+
+            @Override
+            public boolean hasNext() {
+                return calls < 3;
+            }
+
+            @Override
+            public Recipe next() {
+                if (++calls == 2) {
+                    throw new IllegalArgumentException("Cannot deserialize value");
+                }
+                return recipes.next();
+            }
+        };
+
+        RecipeImportResult result = recipeImportService.importRecipes(withBrokenRow, owner.getEmail());
+
+        assertEquals(2, result.imported());
+        assertEquals(List.of(new RecipeImportResult.RowError(2, "Unreadable recipe: Cannot deserialize value")),
+                result.errors());
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
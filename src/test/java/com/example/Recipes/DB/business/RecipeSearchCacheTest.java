@@ -0,0 +1,122 @@
+package com.example.Recipes.DB.business;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static com.example.Recipes.DB.business.RecipeService.SearchCriterion;
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("unit")
+class RecipeSearchCacheTest {
+    RecipeSearchCache recipeSearchCache = new RecipeSearchCache(Duration.ofMinutes(10), 100);
+    Recipe tea = recipe(1L, "Fresh Mint Tea", "Beverage");
+    Recipe cake = recipe(2L, "Chocolate Cake", "Dessert");
+    AtomicInteger loads = new AtomicInteger();
+
+    static Recipe recipe(long id, String name, String category) {
+        return new Recipe(id, name, category, LocalDateTime.now(), "", new ArrayList<>(), new ArrayList<>(), null);
+    }
+
+    Supplier<List<Recipe>> loader(Recipe... recipes) {
+        return () -> {
+            loads.incrementAndGet();
+            return List.of(recipes);
+        };
+    }
+
+    @Test
+    void givenSameTermInOtherCase_whenGet_thenLoadOnce() {
+        recipeSearchCache.get(SearchCriterion.CATEGORY, "Beverage", loader(tea));
+        assertEquals(List.of(tea), recipeSearchCache.get(SearchCriterion.CATEGORY, "beverage", loader(tea)));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void givenRecipeSavedInCategory_whenGet_thenReloadOnlyThatCategory() {
+        recipeSearchCache.get(SearchCriterion.CATEGORY, "beverage", loader(tea));
+        recipeSearchCache.get(SearchCriterion.CATEGORY, "dessert", loader(cake));
+
+        recipeSearchCache.onSaved(recipe(3L, "Iced Tea", "BEVERAGE"));
+        recipeSearchCache.get(SearchCriterion.CATEGORY, "beverage", loader(tea));
+        recipeSearchCache.get(SearchCriterion.CATEGORY, "dessert", loader(cake));
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void givenRecipeSavedWithMatchingName_whenGet_thenReload() {
+        recipeSearchCache.get(SearchCriterion.NAME, "tea", loader(tea));
+        recipeSearchCache.get(SearchCriterion.NAME, "cake", loader(cake));
+
+        recipeSearchCache.onSaved(recipe(3L, "Iced Tea", "Beverage"));
+
+        assertEquals(1, recipeSearchCache.size());
+    }
+
+    @Test
+    void givenRecipeMovedToOtherCategory_whenGet_thenReloadOldCategory() {
+        recipeSearchCache.get(SearchCriterion.CATEGORY, "beverage", loader(tea));
+        recipeSearchCache.onSaved(recipe(tea.getId(), tea.getName(), "Dessert"));
+        assertEquals(0, recipeSearchCache.size());
+    }
+
+    @Test
+    void givenRecipeDeleted_whenGet_thenReloadResultsContainingIt() {
+        recipeSearchCache.get(SearchCriterion.CATEGORY, "beverage", loader(tea));
+        recipeSearchCache.get(SearchCriterion.NAME, "cake", loader(cake));
+
+        recipeSearchCache.onDeleted(tea.getId());
+
+        assertEquals(1, recipeSearchCache.size());
+    }
+
+    @Test
+    void givenConcurrentMisses_whenGet_thenLoadOnce() throws Exception {
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Supplier<List<Recipe>> slowLoader = () -> {
+            loads.incrementAndGet();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return List.of(tea);
+        };
+        try {
+            List<Future<List<Recipe>>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return recipeSearchCache.get(SearchCriterion.CATEGORY, "beverage", slowLoader);
+                }));
+            }
+            start.countDown();
+            for (Future<List<Recipe>> result : results) {
+                assertEquals(List.of(tea), result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void givenLoaderReturnsNull_whenGet_thenDoNotCache() {
+        assertNull(recipeSearchCache.get(SearchCriterion.CATEGORY, "beverage", () -> null));
+        assertEquals(0, recipeSearchCache.size());
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.Recipes.DB.business;
+
+import jakarta.persistence.EntityManagerFactory;
+import com.example.Recipes.DB.persistence.IngredientDictionary;
+import com.example.Recipes.DB.persistence.LikeRecipeNameSearch;
+import com.example.Recipes.DB.persistence.RecipeIndex;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.Recipes.DB.business.RecipeService.MutationResult;
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("unit")
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({RecipeService.class, RecipeSearchCache.class, LikeRecipeNameSearch.class, RecipeIndex.class,
+        IngredientDictionary.class, SimpleMeterRegistry.class})
+class RecipeServiceStatementCountTest {
+    @Autowired
+    RecipeService recipeService;
+
+    @Autowired
+    TestEntityManager testEntityManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    IngredientDictionary ingredientDictionary;
+
+    AppUser owner = new AppUser("owner@test.com", "password1", null);
+    long recipeId;
+
+    @BeforeEach
+    void setUp() {
+        testEntityManager.persist(owner);
+        testEntityManager.persist(new AppUser("other@test.com", "password1", null));
+        Recipe recipe = new Recipe(0, "Fresh Mint Tea", "Beverage", LocalDateTime.now(), "Light and refreshing",
+                new ArrayList<>(List.of("boiled water", "honey", "fresh mint leaves")),
+                new ArrayList<>(List.of("Boil water", "Add fresh mint leaves")), owner);
+        ingredientDictionary.intern(recipe);
+        recipeId = testEntityManager.persistAndGetId(recipe, Long.class);
+        testEntityManager.flush();
+        testEntityManager.clear();
+        statistics().clear();
+    }
+
+    @Test
+    void givenOwner_whenDelete_thenThreeStatements() {
+        assertEquals(MutationResult.SUCCESS, recipeService.delete(recipeId, owner.getEmail()));
+        assertEquals(3, statistics().getPrepareStatementCount());
+        assertNull(testEntityManager.find(Recipe.class, recipeId));
+    }
+
+    @Test
+    void givenNotOwner_whenDelete_thenForbiddenAndNothingDeleted() {
+        assertEquals(MutationResult.FORBIDDEN, recipeService.delete(recipeId, "other@test.com"));
+        assertEquals(4, statistics().getPrepareStatementCount());
+        assertNotNull(testEntityManager.find(Recipe.class, recipeId).getIngredients().get(0));
+    }
+
+    @Test
+    void givenRecipeNotFound_whenDelete_thenNotFound() {
+        assertEquals(MutationResult.NOT_FOUND, recipeService.delete(recipeId + 1, owner.getEmail()));
+        assertEquals(4, statistics().getPrepareStatementCount());
+    }
+
+    @Test
+    void givenNotOwner_whenUpdate_thenSingleStatement() {
+        Recipe update = new Recipe(0, "Mint Tea", "Beverage", null, "Still refreshing",
+                new ArrayList<>(List.of("water")), new ArrayList<>(List.of("Boil water")), null);
+        assertEquals(MutationResult.FORBIDDEN, recipeService.update(recipeId, update, "other@test.com"));
+        assertEquals(1, statistics().getPrepareStatementCount());
+    }
+
+    @Test
+    void givenRecipeNotFound_whenUpdate_thenSingleStatement() {
+        Recipe update = new Recipe(0, "Mint Tea", "Beverage", null, "Still refreshing",
+                new ArrayList<>(List.of("water")), new ArrayList<>(List.of("Boil water")), null);
+        assertEquals(MutationResult.NOT_FOUND, recipeService.update(recipeId + 1, update, owner.getEmail()));
+        assertEquals(1, statistics().getPrepareStatementCount());
+    }
+
+    @Test
+    void givenCurrentETag_whenUpdate_thenSucceedWithNewVersion() {
+        RecipeVersion version = recipeService.getVersion(recipeId);
+        Recipe update = new Recipe(0, "Mint Tea", "Beverage", null, "Still refreshing",
+                new ArrayList<>(List.of("water")), new ArrayList<>(List.of("Boil water")), owner);
+        assertEquals(MutationResult.SUCCESS, recipeService.update(recipeId, update, owner.getEmail(), version.eTag()));
+        testEntityManager.flush();
+        testEntityManager.clear();
+        assertNotEquals(version, recipeService.getVersion(recipeId));
+        assertEquals("Mint Tea", testEntityManager.find(Recipe.class, recipeId).getName());
+    }
+
+    @Test
+    void givenStaleETag_whenUpdate_thenPreconditionFailed() {
+        Recipe update = new Recipe(0, "Mint Tea", "Beverage", null, "Still refreshing",
+                new ArrayList<>(List.of("water")), new ArrayList<>(List.of("Boil water")), owner);
+        assertEquals(MutationResult.PRECONDITION_FAILED,
+                recipeService.update(recipeId, update, owner.getEmail(), "\"" + recipeId + "-stale\""));
+        assertEquals("Fresh Mint Tea", testEntityManager.find(Recipe.class, recipeId).getName());
+    }
+
+    private void persistRecipes(AppUser appUser, String category, int count) {
+        AppUser reference = testEntityManager.getEntityManager().getReference(AppUser.class, appUser.getEmail());
+        for (int i = 0; i < count; i++) {
+            Recipe recipe = new Recipe(0, "Recipe " + i, category, LocalDateTime.now(), "Tasty",
+                    new ArrayList<>(List.of("water", "salt")), new ArrayList<>(List.of("Mix")), reference);
+            ingredientDictionary.intern(recipe);
+            testEntityManager.persist(recipe);
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+        statistics().clear();
+    }
+
+    private long countRows(String table) {
+        return ((Number) testEntityManager.getEntityManager()
+                .createNativeQuery("select count(*) from " + table).getSingleResult()).longValue();
+    }
+
+    @Test
+    void givenOwnerAndCategory_whenDeleteByCategory_thenFourStatementsRegardlessOfCount() {
+        persistRecipes(owner, "Dessert", 200);
+        persistRecipes(new AppUser("other@test.com", "password1", null), "Dessert", 5);
+
+        assertEquals(200, recipeService.deleteByCategory(owner.getEmail(), "dessert"));
+
+        assertEquals(4, statistics().getPrepareStatementCount());
+        assertEquals(6, countRows("recipe"));
+        assertEquals(6 * 2 + 1, countRows("recipe_ingredient"));
+        assertEquals(5 + 2, countRows("recipe_directions"));
+    }
+
+    @Test
+    void givenIdsOfSeveralOwners_whenDeleteByIds_thenDeleteOnlyOwnRecipes() {
+        AppUser other = testEntityManager.persist(new AppUser("third@test.com", "password1", null));
+        persistRecipes(other, "Beverage", 1);
+        List<Long> ids = testEntityManager.getEntityManager()
+                .createQuery("select r.id from Recipe r", Long.class).getResultList();
+
+        assertEquals(1, recipeService.deleteByIds(owner.getEmail(), ids));
+
+        assertEquals(1, countRows("recipe"));
+        assertNull(testEntityManager.find(Recipe.class, recipeId));
+    }
+
+    @Test
+    void givenOwnerAndCategory_whenRecategorize_thenSingleUpdateAndNewDate() {
+        persistRecipes(owner, "Beverage", 100);
+        LocalDateTime before = testEntityManager.find(Recipe.class, recipeId).getDate();
+        testEntityManager.clear();
+        statistics().clear();
+
+        assertEquals(101, recipeService.recategorizeByCategory(owner.getEmail(), "beverage", "Drinks"));
+
+        assertEquals(1, statistics().getPrepareStatementCount());
+        Recipe recipe = testEntityManager.find(Recipe.class, recipeId);
+        assertEquals("Drinks", recipe.getCategory());
+        assertTrue(recipe.getDate().isAfter(before));
+    }
+
+    @Test
+    void givenIdsOfOtherOwner_whenRecategorizeByIds_thenNothingUpdated() {
+        assertEquals(0, recipeService.recategorizeByIds("other@test.com", List.of(recipeId), "Drinks"));
+        assertEquals(1, recipeService.recategorizeByIds(owner.getEmail(), List.of(recipeId), "Drinks"));
+        testEntityManager.clear();
+        assertEquals("Drinks", testEntityManager.find(Recipe.class, recipeId).getCategory());
+    }
+
+    @Test
+    void givenSeveralChunksOfRecipes_whenExport_thenLoadCollectionsOncePerChunk() {
+        persistRecipes(owner, "Beverage", 2 * Recipe.COLLECTION_BATCH_SIZE + 49);
+        List<Recipe> exported = new ArrayList<>();
+
+        assertTrue(recipeService.export("beverage", RecipeService.SearchCriterion.CATEGORY, recipe -> {
+            assertFalse(recipe.getIngredients().isEmpty());
+            assertFalse(recipe.getDirections().isEmpty());
+            exported.add(recipe);
+        }));
+
+        assertEquals(2 * Recipe.COLLECTION_BATCH_SIZE + 50, exported.size());
+        // The query itself, then ingredients and directions for each of the three chunks
+        assertEquals(1 + 3 * 2, statistics().getPrepareStatementCount());
+        assertFalse(testEntityManager.getEntityManager().contains(exported.get(0)));
+    }
+
+    @Test
+    void givenManyRecipes_whenSearchSummaries_thenSingleStatementEach() {
+        persistRecipes(owner, "Beverage", 50);
+
+        assertEquals(51, recipeService.searchSummaries("beverage", RecipeService.SearchCriterion.CATEGORY).size());
+        assertEquals(50, recipeService.searchSummaries("recipe", RecipeService.SearchCriterion.NAME).size());
+        assertEquals(2, statistics().getPrepareStatementCount());
+    }
+
+    @Test
+    void givenComposedQuery_whenSearchSummaries_thenSingleStatementPlusIngredientWordsWithMatchingSummaries() {
+        persistRecipes(owner, "Dessert", 3);
+        RecipeSearchQuery searchQuery = new RecipeSearchQuery("beverage", null, "honey", null, null,
+                owner.getEmail());
+
+        List<RecipeSummary> summaries = recipeService.searchSummaries(searchQuery);
+
+        // One to find the ingredients with the word "honey", one for the summaries
+        assertEquals(2, statistics().getPrepareStatementCount());
+        assertEquals(1, summaries.size());
+        assertEquals(recipeId, summaries.get(0).id());
+        assertEquals("Fresh Mint Tea", summaries.get(0).name());
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
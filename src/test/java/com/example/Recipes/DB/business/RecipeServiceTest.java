@@ -1,11 +1,21 @@
 package com.example.Recipes.DB.business;
 
+import com.example.Recipes.DB.persistence.IngredientDictionary;
+import com.example.Recipes.DB.persistence.RecipeIndex;
 import com.example.Recipes.DB.persistence.RecipeRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -23,9 +33,27 @@ class RecipeServiceTest {
     @MockBean
     RecipeRepository recipeRepository;
 
+    @MockBean
+    IngredientDictionary ingredientDictionary;
+
     @Autowired
     RecipeService recipeService;
 
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    RecipeSearchCache recipeSearchCache;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    RecipeIndex recipeIndex;
+
     long nonExistentRecipeId = 99L;
 
     Recipe recipe = new Recipe(0, "Fresh Mint Tea", "Beverage", LocalDateTime.now(),
@@ -49,12 +77,27 @@ class RecipeServiceTest {
         add(recipe);
     }};
 
+    @BeforeEach
+    void clearCache() {
+        cacheManager.getCache(CacheConfig.RECIPES).clear();
+        recipeSearchCache.invalidateAll();
+    }
+
     @Test
     void whenAdd_thenSucceed() {
         when(recipeRepository.save(recipe)).thenReturn(recipe);
         assertEquals(recipe, recipeService.add(recipe, false));
     }
 
+    @Test
+    void whenAdd_thenInternIngredientsBeforeSave() {
+        when(recipeRepository.save(recipe)).thenReturn(recipe);
+        recipeService.add(recipe, false);
+        InOrder inOrder = inOrder(ingredientDictionary, recipeRepository);
+        inOrder.verify(ingredientDictionary).intern(recipe);
+        inOrder.verify(recipeRepository).save(recipe);
+    }
+
     @Test
     void givenRecipeExists_whenUpdate_thenSucceed() {
         when(recipeRepository.findById(recipe.getId())).thenReturn(Optional.ofNullable(recipe));
@@ -71,10 +114,86 @@ class RecipeServiceTest {
         verify(recipeRepository, never()).save(any());
     }
 
+    @Test
+    void givenOwner_whenUpdate_thenSucceed() {
+        when(recipeRepository.findOwnerById(recipe.getId())).thenReturn(Optional.of(recipe.getAppUser().getEmail()));
+        assertEquals(MutationResult.SUCCESS, recipeService.update(recipe.getId(), recipe, recipe.getAppUser().getEmail()));
+        verify(recipeRepository).save(recipe);
+        verify(recipeRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void givenNotOwner_whenUpdate_thenReturnForbidden() {
+        when(recipeRepository.findOwnerById(recipe.getId())).thenReturn(Optional.of(recipe.getAppUser().getEmail()));
+        assertEquals(MutationResult.FORBIDDEN, recipeService.update(recipe.getId(), recipe, "other@test.com"));
+        verify(recipeRepository, never()).save(any());
+    }
+
+    @Test
+    void givenRecipeNotFound_whenUpdateAsOwner_thenReturnNotFound() {
+        when(recipeRepository.findOwnerById(nonExistentRecipeId)).thenReturn(Optional.empty());
+        assertEquals(MutationResult.NOT_FOUND, recipeService.update(nonExistentRecipeId, recipe, "test@test.com"));
+        verify(recipeRepository, never()).save(any());
+    }
+
     @Test
     void givenRecipeExists_whenGet_thenSucceed() {
         when(recipeRepository.findById(recipe.getId())).thenReturn(Optional.ofNullable(recipe));
         assertEquals(recipe, recipeService.get(recipe.getId()));
+        verify(recipeRepository, times(1)).findById(recipe.getId());
+    }
+
+    @Test
+    void givenRecipeCached_whenGet_thenDoNotQueryRepositoryAgain() {
+        when(recipeRepository.findById(recipe.getId())).thenReturn(Optional.ofNullable(recipe));
+        recipeService.get(recipe.getId());
+        assertEquals(recipe, recipeService.get(recipe.getId()));
+        verify(recipeRepository, times(1)).findById(recipe.getId());
+    }
+
+    @Test
+    void givenRecipeCached_whenUpdateOrDelete_thenEvict() {
+        String owner = recipe.getAppUser().getEmail();
+        when(recipeRepository.findById(recipe.getId())).thenReturn(Optional.ofNullable(recipe));
+        when(recipeRepository.findOwnerById(recipe.getId())).thenReturn(Optional.of(owner));
+        when(recipeRepository.deleteByIdAndOwner(recipe.getId(), owner)).thenReturn(1);
+
+        recipeService.get(recipe.getId());
+        recipeService.update(recipe.getId(), recipe, owner);
+        recipeService.get(recipe.getId());
+        recipeService.delete(recipe.getId(), owner);
+        recipeService.get(recipe.getId());
+
+        verify(recipeRepository, times(3)).findById(recipe.getId());
+    }
+
+    @Test
+    void givenRecipeCached_whenUpdateNotCommittedYet_thenEvictOnCommit() {
+        String owner = recipe.getAppUser().getEmail();
+        when(recipeRepository.findById(recipe.getId())).thenReturn(Optional.ofNullable(recipe));
+        when(recipeRepository.findOwnerById(recipe.getId())).thenReturn(Optional.of(owner));
+        recipeService.get(recipe.getId());
+        Cache cache = cacheManager.getCache(CacheConfig.RECIPES);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            recipeService.update(recipe.getId(), recipe, owner);
+            assertNotNull(cache.get(recipe.getId()));
+        });
+
+        assertNull(cache.get(recipe.getId()));
+    }
+
+    @Test
+    void givenNotFoundCached_whenAddWithSameId_thenEvict() {
+        when(recipeRepository.findById(nonExistentRecipeId)).thenReturn(Optional.empty());
+        assertNull(recipeService.get(nonExistentRecipeId));
+        recipe.setId(nonExistentRecipeId);
+        when(recipeRepository.save(recipe)).thenReturn(recipe);
+        when(recipeRepository.findById(nonExistentRecipeId)).thenReturn(Optional.of(recipe));
+
+        recipeService.add(recipe, false);
+
+        assertEquals(recipe, recipeService.get(nonExistentRecipeId));
     }
 
     @Test
@@ -86,16 +205,27 @@ class RecipeServiceTest {
     }
 
     @Test
-    void givenRecipeExists_whenDelete_thenSucceed() {
-        when(recipeRepository.findById(recipe.getId())).thenReturn(Optional.ofNullable(recipe));
-        assertTrue(recipeService.delete(recipe.getId()));
+    void givenOwner_whenDelete_thenSucceed() {
+        String owner = recipe.getAppUser().getEmail();
+        when(recipeRepository.deleteByIdAndOwner(recipe.getId(), owner)).thenReturn(1);
+        assertEquals(MutationResult.SUCCESS, recipeService.delete(recipe.getId(), owner));
+        verify(recipeRepository, never()).existsById(anyLong());
+        verify(recipeRepository, never()).findById(anyLong());
     }
 
     @Test
-    void givenRecipeNotFound_whenDelete_thenReturnFalse() {
-        when(recipeRepository.findById(nonExistentRecipeId)).thenReturn(Optional.empty());
-        assertFalse(recipeService.delete(nonExistentRecipeId));
-        verify(recipeRepository, never()).delete(any());
+    void givenNotOwner_whenDelete_thenReturnForbidden() {
+        when(recipeRepository.deleteByIdAndOwner(recipe.getId(), "other@test.com")).thenReturn(0);
+        when(recipeRepository.existsById(recipe.getId())).thenReturn(true);
+        assertEquals(MutationResult.FORBIDDEN, recipeService.delete(recipe.getId(), "other@test.com"));
+    }
+
+    @Test
+    void givenRecipeNotFound_whenDelete_thenReturnNotFound() {
+        when(recipeRepository.deleteByIdAndOwner(nonExistentRecipeId, "test@test.com")).thenReturn(0);
+        when(recipeRepository.existsById(nonExistentRecipeId)).thenReturn(false);
+        assertEquals(MutationResult.NOT_FOUND, recipeService.delete(nonExistentRecipeId, "test@test.com"));
+        verify(recipeRepository, never()).delete(any(Recipe.class));
     }
 
     @Test
@@ -110,6 +240,51 @@ class RecipeServiceTest {
         assertThat(listOfRecipes).isEqualTo(recipeService.search("Beverage", SearchCriterion.CATEGORY));
     }
 
+    @Test
+    void givenCategorySearchCached_whenRecipeAddedToCategory_thenQueryAgain() {
+        when(recipeRepository.findByCategoryIgnoreCaseOrderByDateDesc("beverage")).thenReturn(listOfRecipes);
+        when(recipeRepository.save(recipe)).thenReturn(recipe);
+
+        recipeService.search("beverage", SearchCriterion.CATEGORY);
+        recipeService.search("beverage", SearchCriterion.CATEGORY);
+        verify(recipeRepository, times(1)).findByCategoryIgnoreCaseOrderByDateDesc("beverage");
+
+        recipeService.add(recipe, false);
+        recipeService.search("beverage", SearchCriterion.CATEGORY);
+        verify(recipeRepository, times(2)).findByCategoryIgnoreCaseOrderByDateDesc("beverage");
+    }
+
+    @Test
+    void givenRecipeAdded_whenSearchByIngredient_thenFindItInIndex() {
+        recipe.setId(42L);
+        when(recipeRepository.save(recipe)).thenReturn(recipe);
+        when(recipeRepository.findAllById(any())).thenReturn(listOfRecipes);
+        recipeService.add(recipe, false);
+
+        assertThat(recipeService.search("mint honey", SearchCriterion.INGREDIENT)).isEqualTo(listOfRecipes);
+        verify(recipeRepository).findAllById(argThat(ids -> ((List<?>) ids).contains(42L)));
+    }
+
+    @Test
+    void givenUpdateRolledBack_whenSearchIndex_thenNotFound() {
+        String owner = recipe.getAppUser().getEmail();
+        Recipe update = new Recipe(0, "Sorrel Soup", "Soup", null, "Sour",
+                new ArrayList<>(List.of("sorrel")), new ArrayList<>(List.of("Simmer")), null);
+        when(recipeRepository.findOwnerById(43L)).thenReturn(Optional.of(owner));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            recipeService.update(43L, update, owner);
+            status.setRollbackOnly();
+        });
+        assertEquals(0, recipeIndex.search("sorrel", RecipeIndex.Field.INGREDIENTS).length);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            recipeService.update(43L, update, owner);
+            assertEquals(0, recipeIndex.search("sorrel", RecipeIndex.Field.INGREDIENTS).length);
+        });
+        assertArrayEquals(new long[] {43}, recipeIndex.search("sorrel", RecipeIndex.Field.INGREDIENTS));
+    }
+
     @Test
     void whenInvalidSearch_thenReturnNull() {
         assertNull(recipeService.search("", SearchCriterion.UNDEFINED));
@@ -122,5 +297,24 @@ class RecipeServiceTest {
         assertEquals(SearchCriterion.UNDEFINED, searchCriterion.findById(0));
         assertEquals(SearchCriterion.CATEGORY, searchCriterion.findById(1));
         assertEquals(SearchCriterion.NAME, searchCriterion.findById(2));
+        assertEquals(SearchCriterion.INGREDIENT, searchCriterion.findById(3));
+        assertEquals(SearchCriterion.TEXT, searchCriterion.findById(4));
+    }
+
+    @Test
+    void whenSearch_thenTimeBySearchCriterion() {
+        when(recipeRepository.findByCategoryIgnoreCaseOrderByDateDesc("beverage")).thenReturn(listOfRecipes);
+        long before = searchCount("CATEGORY");
+        long nameSearchesBefore = searchCount("NAME");
+
+        recipeService.search("beverage", SearchCriterion.CATEGORY);
+
+        assertEquals(before + 1, searchCount("CATEGORY"));
+        assertEquals(nameSearchesBefore, searchCount("NAME"));
+    }
+
+    long searchCount(String criterion) {
+        Timer timer = meterRegistry.find("recipes.service").tags("operation", "search", "criterion", criterion).timer();
+        return timer == null ? 0 : timer.count();
     }
-}
\ No newline at end of file
+}
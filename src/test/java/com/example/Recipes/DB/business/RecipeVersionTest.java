@@ -0,0 +1,42 @@
+package com.example.Recipes.DB.business;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("unit")
+class RecipeVersionTest {
+    RecipeVersion version = new RecipeVersion(7, LocalDateTime.of(2023, 1, 31, 12, 30, 0, 123_456_000));
+
+    @Test
+    void givenSameIdAndDate_whenETag_thenEqual() {
+        assertEquals(version.eTag(), new RecipeVersion(7, version.date()).eTag());
+        assertTrue(version.eTag().startsWith("\"7-"));
+        assertTrue(version.eTag().endsWith("\""));
+    }
+
+    @Test
+    void givenDateChangedByOneMicrosecond_whenETag_thenDifferent() {
+        assertNotEquals(version.eTag(), new RecipeVersion(7, version.date().plusNanos(1_000)).eTag());
+    }
+
+    @Test
+    void givenFormat_whenETag_thenWeakAndDifferentPerFormat() {
+        assertTrue(version.eTag("json").startsWith("W/\"7-"));
+        assertTrue(version.eTag("json").endsWith("-json\""));
+        assertNotEquals(version.eTag("json"), version.eTag("cbor"));
+    }
+
+    @Test
+    void givenListOfETags_whenMatches_thenCompareTheVersionInEach() {
+        assertTrue(version.matches("\"7-other\", " + version.eTag()));
+        assertTrue(version.matches("*"));
+        assertTrue(version.matches(version.eTag("json")));
+        assertTrue(version.matches(version.eTag("cbor")));
+        assertFalse(version.matches("\"7-other\""));
+        assertFalse(version.matches(new RecipeVersion(7, version.date().plusNanos(1_000)).eTag("json")));
+    }
+}
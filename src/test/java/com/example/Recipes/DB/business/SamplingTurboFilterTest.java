@@ -0,0 +1,69 @@
+package com.example.Recipes.DB.business;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Marker;
+
+import static com.example.Recipes.DB.business.SamplingTurboFilter.SAMPLED;
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("unit")
+class SamplingTurboFilterTest {
+    SamplingTurboFilter filter = new SamplingTurboFilter();
+    Logger logger = new LoggerContext().getLogger(SamplingTurboFilterTest.class);
+
+    @BeforeEach
+    void setUp() {
+        logger.setLevel(Level.INFO);
+        filter.setRate(3);
+    }
+
+    @Test
+    void givenSampledMarker_whenDecide_thenLetOneInRateThrough() {
+        int passed = 0;
+        for (int i = 0; i < 9; i++) {
+            if (decide(SAMPLED, Level.INFO, "Recipe (id={}) found.") == FilterReply.NEUTRAL) {
+                passed++;
+            }
+        }
+        assertEquals(3, passed);
+    }
+
+    @Test
+    void givenDifferentPatterns_whenDecide_thenSampleEachSeparately() {
+        assertEquals(FilterReply.NEUTRAL, decide(SAMPLED, Level.INFO, "Recipe (id={}) found."));
+        assertEquals(FilterReply.NEUTRAL, decide(SAMPLED, Level.INFO, "Searching for {}."));
+        assertEquals(FilterReply.DENY, decide(SAMPLED, Level.INFO, "Recipe (id={}) found."));
+    }
+
+    @Test
+    void givenNoMarker_whenDecide_thenNeutral() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(FilterReply.NEUTRAL, decide(null, Level.INFO, "Added user '{}'."));
+        }
+    }
+
+    @Test
+    void givenLevelDisabled_whenDecide_thenNotCounted() {
+        decide(SAMPLED, Level.DEBUG, "Recipe (id={}) found.");
+        decide(SAMPLED, Level.DEBUG, "Recipe (id={}) found.");
+        assertEquals(FilterReply.NEUTRAL, decide(SAMPLED, Level.INFO, "Recipe (id={}) found."));
+    }
+
+    @Test
+    void givenRateOfOne_whenDecide_thenNeutral() {
+        filter.setRate(1);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(FilterReply.NEUTRAL, decide(SAMPLED, Level.INFO, "Recipe (id={}) found."));
+        }
+    }
+
+    private FilterReply decide(Marker marker, Level level, String format) {
+        return filter.decide(marker, logger, level, format, null, null);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.Recipes.DB.business;
+
+import com.example.Recipes.DB.persistence.SqlStatementCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("unit")
+class SqlStatementMetricsFilterTest {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    SqlStatementMetricsFilter filter = new SqlStatementMetricsFilter(meterRegistry);
+    SqlStatementCounter sqlStatementCounter = new SqlStatementCounter();
+
+    @Test
+    void givenStatementsDuringRequest_whenFilter_thenRecordCountPerEndpoint() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/api/recipe/1");
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/recipe/{id}");
+                sqlStatementCounter.inspect("select 1");
+                sqlStatementCounter.inspect("update recipe set name = ?");
+            }
+        };
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(servlet));
+
+        DistributionSummary summary = meterRegistry.get("recipes.sql.statements")
+                .tags("method", "PUT", "uri", "/api/recipe/{id}").summary();
+        assertEquals(1, summary.count());
+        assertEquals(2, summary.totalAmount());
+    }
+
+    @Test
+    void givenNoRequest_whenInspect_thenNothingCounted() {
+        sqlStatementCounter.inspect("select 1");
+        assertEquals(0, SqlStatementCounter.stop());
+    }
+}
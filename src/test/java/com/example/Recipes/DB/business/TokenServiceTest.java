@@ -0,0 +1,73 @@
+package com.example.Recipes.DB.business;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("unit")
+class TokenServiceTest {
+    static final String SECRET = Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8));
+    static final Instant NOW = Instant.parse("2023-06-01T12:00:00Z");
+
+    TokenService tokenService = tokenService(NOW);
+
+    static TokenService tokenService(Instant now) {
+        return new TokenService(Duration.ofMinutes(15), SECRET, Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    @Test
+    void whenIssue_thenVerifyReturnsEmail() {
+        TokenService.Token token = tokenService.issue("test@gmail.com");
+        assertEquals(900, token.expiresIn());
+        assertEquals("test@gmail.com", tokenService.verify(token.token()));
+    }
+
+    @Test
+    void givenSameSecret_whenVerifyOnOtherInstance_thenSucceed() {
+        String token = tokenService.issue("test@gmail.com").token();
+        assertEquals("test@gmail.com", tokenService(NOW.plusSeconds(60)).verify(token));
+    }
+
+    @Test
+    void givenExpiredToken_whenVerify_thenReturnNull() {
+        String token = tokenService.issue("test@gmail.com").token();
+        assertNull(tokenService(NOW.plus(Duration.ofMinutes(15))).verify(token));
+    }
+
+    @Test
+    void givenOtherSecret_whenVerify_thenReturnNull() {
+        String token = new TokenService(Duration.ofMinutes(15), "").issue("test@gmail.com").token();
+        assertNull(tokenService.verify(token));
+    }
+
+    @Test
+    void givenChangedClaims_whenVerify_thenReturnNull() {
+        String[] parts = tokenService.issue("test@gmail.com").token().split("\\.");
+        String claims = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                "{\"sub\":\"other@gmail.com\",\"exp\":9999999999}".getBytes(StandardCharsets.UTF_8));
+        assertNull(tokenService.verify(parts[0] + "." + claims + "." + parts[2]));
+    }
+
+    @Test
+    void givenUnsignedToken_whenVerify_thenReturnNull() {
+        String header = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                "{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8));
+        String[] parts = tokenService.issue("test@gmail.com").token().split("\\.");
+        assertNull(tokenService.verify(header + "." + parts[1] + "."));
+    }
+
+    @Test
+    void givenGarbage_whenVerify_thenReturnNull() {
+        assertNull(tokenService.verify("not-a-token"));
+        assertNull(tokenService.verify("a.b"));
+        assertNull(tokenService.verify("a.%%%.c"));
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.Recipes.DB.persistence;
+
+import com.example.Recipes.DB.business.Ingredient;
+import com.example.Recipes.DB.business.Recipe;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("unit")
+@DataJpaTest
+@Import(IngredientDictionary.class)
+// Commits and rollbacks are part of what is tested, so the test must not wrap it in a transaction
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IngredientDictionaryTest {
+    @Autowired
+    IngredientDictionary ingredientDictionary;
+
+    @Autowired
+    IngredientRepository ingredientRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    static Recipe recipe(String... ingredients) {
+        return new Recipe(0, "Mint Tea", "Beverage", null, "Fresh", new ArrayList<>(List.of(ingredients)),
+                new ArrayList<>(List.of("Mix")), null);
+    }
+
+    @Test
+    void givenNewAndKnownNames_whenIntern_thenAddNewOnesAndKeepOrder() {
+        ingredientDictionary.intern(recipe("water"));
+        long known = ingredientRepository.count();
+        Recipe recipe = recipe("mint", "water", "honey", "mint");
+
+        ingredientDictionary.intern(recipe);
+
+        assertEquals(List.of("mint", "water", "honey", "mint"),
+                recipe.getIngredientEntries().stream().map(Ingredient::getName).toList());
+        assertEquals(recipe.getIngredientEntries().get(0).getId(), recipe.getIngredientEntries().get(3).getId());
+        assertEquals(known + 2, ingredientRepository.count());
+    }
+
+    @Test
+    void givenTransactionRolledBack_whenInternAgain_thenAddNamesAgain() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            ingredientDictionary.intern(recipe("saffron"));
+            status.setRollbackOnly();
+        });
+        assertTrue(ingredientRepository.findByNameIn(List.of("saffron")).isEmpty());
+
+        Recipe recipe = recipe("saffron");
+        ingredientDictionary.intern(recipe);
+
+        assertEquals(ingredientRepository.findByNameIn(List.of("saffron")).get(0).getId(),
+                recipe.getIngredientEntries().get(0).getId());
+    }
+}
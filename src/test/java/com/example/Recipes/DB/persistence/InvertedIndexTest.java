@@ -0,0 +1,52 @@
+package com.example.Recipes.DB.persistence;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("unit")
+class InvertedIndexTest {
+    InvertedIndex invertedIndex = new InvertedIndex();
+
+    @Test
+    void givenManyUpdates_whenTombstonesOutnumberDocuments_thenCompactAndKeepResults() {
+        for (long id = 0; id < 2000; id++) {
+            invertedIndex.put(id, List.of("even-" + (id % 2 == 0), "old"));
+        }
+        for (int round = 0; round < 5; round++) {
+            for (long id = 0; id < 2000; id++) {
+                invertedIndex.put(id, List.of("even-" + (id % 2 == 0), "round-" + round));
+            }
+        }
+
+        assertTrue(invertedIndex.tombstones() <= invertedIndex.size(), "tombstones: " + invertedIndex.tombstones());
+        assertEquals(2000, invertedIndex.size());
+        assertEquals(0, invertedIndex.search(List.of(List.of(Set.of("old")))).length);
+        assertEquals(0, invertedIndex.search(List.of(List.of(Set.of("round-0")))).length);
+        long[] evenIds = invertedIndex.search(List.of(List.of(Set.of("even-true"), Set.of("round-4"))));
+        assertEquals(1000, evenIds.length);
+        assertTrue(Arrays.stream(evenIds).allMatch(id -> id % 2 == 0));
+    }
+
+    @Test
+    void givenRemovedDocuments_whenCompacted_thenSearchSkipsThemAndKeepsOrder() {
+        for (long id = 0; id < 3000; id++) {
+            invertedIndex.put(id, List.of("term"));
+        }
+        for (long id = 0; id <= 1500; id++) {
+            invertedIndex.remove(id);
+        }
+
+        long[] ids = invertedIndex.search(List.of(List.of(Set.of("term"))));
+
+        assertEquals(0, invertedIndex.tombstones());
+        assertEquals(1499, ids.length);
+        assertEquals(1501, ids[0]);
+        assertEquals(2999, ids[1498]);
+    }
+}
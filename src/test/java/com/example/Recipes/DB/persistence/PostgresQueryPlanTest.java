@@ -0,0 +1,96 @@
+package com.example.Recipes.DB.persistence;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs against the PostgreSQL database of application.properties, migrated by Flyway like the application does. The
+// tables may be (nearly) empty, so sequential scans are disabled for the test's transaction: an index that can answer
+// a query is then always chosen, one that can't never is. Skipped when that database can't be reached
+@Tag("postgres")
+@EnabledIf("postgresIsReachable")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class PostgresQueryPlanTest {
+    @Autowired
+    DataSource dataSource;
+
+    JdbcTemplate jdbcTemplate;
+
+    static boolean postgresIsReachable() {
+        try {
+            Properties properties = PropertiesLoaderUtils.loadProperties(new ClassPathResource("application.properties"));
+            try (Connection ignored = DriverManager.getConnection(properties.getProperty("spring.datasource.url"),
+                    properties.getProperty("spring.datasource.username"),
+                    properties.getProperty("spring.datasource.password"))) {
+                return true;
+            }
+        } catch (IOException | SQLException e) {
+            return false;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("set local enable_seqscan = off");
+    }
+
+    @Test
+    void whenSearchingSummariesByCategory_thenPlanUsesCoveringFunctionalIndex() {
+        assertThat(plan("select id, name, category, date from recipe where lower(category) = lower('Beverage') " +
+                "order by date desc, id desc"))
+                .contains("Index Only Scan using idx_recipe_lower_category_date")
+                .doesNotContain("Sort");
+    }
+
+    @Test
+    void whenPagingByCategory_thenPlanUsesFunctionalIndexWithoutSort() {
+        assertThat(plan("select * from recipe where lower(category) = lower('Beverage') and " +
+                "(date < timestamp '2023-01-02 00:00:00' or (date = timestamp '2023-01-02 00:00:00' and id < 10)) " +
+                "order by date desc, id desc limit 21"))
+                .contains("idx_recipe_lower_category_date")
+                .doesNotContain("Sort");
+    }
+
+    @Test
+    void whenSelectingOwnersRecipesOfCategory_thenPlanUsesOwnerCategoryIndex() {
+        assertThat(plan("select id from recipe where added_by = 'test@test.com' " +
+                "and lower(category) = lower('Dessert')"))
+                .contains("idx_recipe_added_by_lower_category");
+    }
+
+    @Test
+    void whenFindingRecipesUsingIngredient_thenPlanUsesIngredientIndexes() {
+        assertThat(plan("select * from recipe where id in (select ri.recipe_id from recipe_ingredient ri " +
+                "join ingredient i on i.id = ri.ingredient_id where lower(i.name) = lower('Fresh Mint Leaves'))"))
+                .contains("idx_ingredient_lower_name")
+                .contains("idx_recipe_ingredient_ingredient_id");
+    }
+
+    @Test
+    void whenSearchingNameContaining_thenPlanUsesTrigramIndex() {
+        assertThat(plan("select * from recipe where lower(name) like '%' || lower('Mint') || '%'"))
+                .contains("recipe_name_trgm_idx");
+    }
+
+    private String plan(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class));
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.Recipes.DB.persistence;
+
+import com.example.Recipes.DB.business.Recipe;
+import io.r2dbc.spi.ConnectionFactories;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("unit")
+class ReactiveRecipeRepositoryTest {
+    DatabaseClient databaseClient = DatabaseClient.create(
+            ConnectionFactories.get("r2dbc:h2:mem:///reactive-recipes;DB_CLOSE_DELAY=-1"));
+    ReactiveRecipeRepository reactiveRecipeRepository = new ReactiveRecipeRepository(databaseClient);
+    LocalDateTime base = LocalDateTime.of(2023, 1, 1, 12, 0);
+
+    private void execute(String sql) {
+        databaseClient.sql(sql).then().block();
+    }
+
+    private void insert(long id, String name, String category, int minutes) {
+        databaseClient.sql("insert into recipe (id, name, category, date, description) " +
+                        "values (:id, :name, :category, :date, 'Tasty')")
+                .bind("id", id).bind("name", name).bind("category", category).bind("date", base.plusMinutes(minutes))
+                .then().block();
+        databaseClient.sql("insert into ingredient (id, name) values (:id, :name)")
+                .bind("id", id + 1).bind("name", name.toLowerCase()).then().block();
+        databaseClient.sql("insert into recipe_ingredient (recipe_id, position, ingredient_id) " +
+                        "values (:id, 0, :ingredient)")
+                .bind("id", id).bind("ingredient", id + 1).then().block();
+        databaseClient.sql("insert into recipe_ingredient (recipe_id, position, ingredient_id) values (:id, 1, 1)")
+                .bind("id", id).then().block();
+        databaseClient.sql("insert into recipe_directions (recipe_id, directions) values (:id, 'Mix')")
+                .bind("id", id).then().block();
+    }
+
+    @BeforeEach
+    void setUp() {
+        execute("drop table if exists recipe_ingredient");
+        execute("drop table if exists ingredient");
+        execute("drop table if exists recipe_directions");
+        execute("drop table if exists recipe");
+        execute("create table recipe (id bigint primary key, name varchar(255), category varchar(255), " +
+                "date timestamp(6), description varchar(255), added_by varchar(255))");
+        execute("create table ingredient (id bigint primary key, name varchar(255) not null unique)");
+        execute("create table recipe_ingredient (recipe_id bigint not null, position integer not null, " +
+                "ingredient_id bigint not null, primary key (recipe_id, position))");
+        execute("insert into ingredient (id, name) values (1, 'water')");
+        execute("create table recipe_directions (recipe_id bigint not null, directions varchar(255))");
+        insert(1, "Fresh Mint Tea", "Beverage", 0);
+        insert(2, "Mint Julep", "Beverage", 10);
+        insert(3, "Chocolate Cake", "Dessert", 20);
+    }
+
+    @Test
+    void givenRecipeExists_whenFindById_thenReturnItWithCollections() {
+        StepVerifier.create(reactiveRecipeRepository.findById(2))
+                .assertNext(recipe -> {
+                    assertEquals("Mint Julep", recipe.getName());
+                    assertEquals(base.plusMinutes(10), recipe.getDate());
+                    assertEquals(List.of("mint julep", "water"), recipe.getIngredients());
+                    assertEquals(List.of("Mix"), recipe.getDirections());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void givenRecipeDoesNotExist_whenFindById_thenEmpty() {
+        StepVerifier.create(reactiveRecipeRepository.findById(99)).verifyComplete();
+    }
+
+    @Test
+    void whenFindByCategory_thenNewestFirstIgnoringCase() {
+        StepVerifier.create(reactiveRecipeRepository.findByCategory("beverage").map(Recipe::getName))
+                .expectNext("Mint Julep", "Fresh Mint Tea")
+                .verifyComplete();
+    }
+
+    @Test
+    void whenFindByNameContaining_thenTreatWildcardsLiterally() {
+        StepVerifier.create(reactiveRecipeRepository.findByNameContaining("MINT").map(Recipe::getId))
+                .expectNext(2L, 1L)
+                .verifyComplete();
+        StepVerifier.create(reactiveRecipeRepository.findByNameContaining("%")).verifyComplete();
+    }
+
+    @Test
+    void givenMoreRecipesThanOneBatch_whenFindByCategory_thenLoadCollectionsForEveryRecipe() {
+        for (int i = 0; i < ReactiveRecipeRepository.BATCH_SIZE + 20; i++) {
+            insert(100 + i, "Cake " + i, "Cakes", 100 + i);
+        }
+        List<Recipe> recipes = reactiveRecipeRepository.findByCategory("Cakes").collectList().block();
+        assertEquals(ReactiveRecipeRepository.BATCH_SIZE + 20, recipes.size());
+        assertTrue(recipes.stream().allMatch(recipe -> recipe.getIngredients().size() == 2));
+    }
+
+    @Test
+    void givenSlowSubscriber_whenFindByCategory_thenDeliverOnDemand() {
+        Flux<Recipe> recipes = reactiveRecipeRepository.findByCategory("Beverage");
+        StepVerifier.create(recipes, 1)
+                .expectNextCount(1)
+                .thenRequest(1)
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.Recipes.DB.persistence;
+
+import com.example.Recipes.DB.business.Recipe;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@Tag("unit")
+class RecipeIndexTest {
+    RecipeRepository recipeRepository = mock(RecipeRepository.class);
+    RecipeIndex recipeIndex = new RecipeIndex(recipeRepository, mock(PlatformTransactionManager.class), true);
+
+    Recipe pesto = recipe(1, "Pesto Genovese", "Classic basil sauce", List.of("basil", "garlic", "pine nuts"),
+            List.of("Blend everything"));
+    Recipe bread = recipe(2, "Garlic Bread", "Crunchy", List.of("baguette", "garlic", "butter"),
+            List.of("Bake with basil butter"));
+    Recipe tea = recipe(3, "Mint Tea", "Light and refreshing", List.of("water", "mint"), List.of("Boil water"));
+
+    @Test
+    void whenSearchAllWords_thenOnlyReturnRecipesContainingEveryWord() {
+        putAll();
+        assertArrayEquals(new long[] {1}, recipeIndex.search("basil garlic", RecipeIndex.Field.INGREDIENTS));
+        assertArrayEquals(new long[] {1, 2}, recipeIndex.search("garlic", RecipeIndex.Field.INGREDIENTS));
+    }
+
+    @Test
+    void whenSearchAlternatives_thenReturnRecipesContainingEitherWord() {
+        putAll();
+        assertArrayEquals(new long[] {1, 3}, recipeIndex.search("pine nuts or MINT", RecipeIndex.Field.INGREDIENTS));
+        assertArrayEquals(new long[] {1, 3}, recipeIndex.search("pesto | tea", RecipeIndex.Field.NAME));
+    }
+
+    @Test
+    void givenNoField_whenSearch_thenSearchEveryField() {
+        putAll();
+        assertArrayEquals(new long[] {1, 2}, recipeIndex.search("basil", null));
+        assertArrayEquals(new long[] {3}, recipeIndex.search("refreshing water", null));
+    }
+
+    @Test
+    void givenUpdatedOrDeletedRecipe_whenSearch_thenIndexIsUpToDate() {
+        putAll();
+        recipeIndex.put(recipe(1, "Pesto Rosso", "Tomato sauce", List.of("tomato", "almonds"), List.of("Blend")));
+        recipeIndex.remove(2);
+
+        assertEquals(0, recipeIndex.search("basil garlic", RecipeIndex.Field.INGREDIENTS).length);
+        assertEquals(0, recipeIndex.search("garlic", null).length);
+        assertArrayEquals(new long[] {1}, recipeIndex.search("tomato", RecipeIndex.Field.INGREDIENTS));
+    }
+
+    @Test
+    void whenRebuild_thenIndexEveryRecipeFromRepository() {
+        when(recipeRepository.findByIdGreaterThanOrderById(eq(Long.MIN_VALUE), any(Pageable.class)))
+                .thenReturn(List.of(pesto, bread));
+        when(recipeRepository.findByIdGreaterThanOrderById(eq(2L), any(Pageable.class))).thenReturn(List.of(tea));
+        when(recipeRepository.findByIdGreaterThanOrderById(eq(3L), any(Pageable.class))).thenReturn(List.of());
+
+        recipeIndex.rebuild();
+
+        assertEquals(3, recipeIndex.size());
+        assertArrayEquals(new long[] {3}, recipeIndex.search("mint", RecipeIndex.Field.INGREDIENTS));
+    }
+
+    @Test
+    void givenWritesWhileRebuilding_whenRebuild_thenKeepThemOverOlderPages() {
+        when(recipeRepository.findByIdGreaterThanOrderById(eq(Long.MIN_VALUE), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    // Committed after the page below was read
+                    recipeIndex.remove(1);
+                    recipeIndex.put(recipe(2, "Garlic Bread", "Crunchy", List.of("baguette", "olive oil"),
+                            List.of("Bake")));
+                    return List.of(pesto, bread);
+                });
+        when(recipeRepository.findByIdGreaterThanOrderById(eq(2L), any(Pageable.class))).thenReturn(List.of());
+
+        recipeIndex.rebuild();
+
+        assertEquals(1, recipeIndex.size());
+        assertEquals(0, recipeIndex.search("basil", null).length);
+        assertEquals(0, recipeIndex.search("butter", RecipeIndex.Field.INGREDIENTS).length);
+        assertArrayEquals(new long[] {2}, recipeIndex.search("olive", RecipeIndex.Field.INGREDIENTS));
+    }
+
+    @Test
+    void whenTokenize_thenLowercaseAndDropPunctuationAndStopWords() {
+        assertEquals(List.of("salt", "pepper", "taste"), RecipeIndex.tokenize("Salt and pepper, to taste!"));
+    }
+
+    private void putAll() {
+        recipeIndex.put(pesto);
+        recipeIndex.put(bread);
+        recipeIndex.put(tea);
+    }
+
+    private static Recipe recipe(long id, String name, String description, List<String> ingredients,
+                                 List<String> directions) {
+        return new Recipe(id, name, "Any", LocalDateTime.now(), description, ingredients, directions, null);
+    }
+}
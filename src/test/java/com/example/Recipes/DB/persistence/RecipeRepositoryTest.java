@@ -0,0 +1,300 @@
+package com.example.Recipes.DB.persistence;
+
+import com.example.Recipes.DB.business.AppUser;
+import com.example.Recipes.DB.business.Recipe;
+import com.example.Recipes.DB.business.RecipeSearchQuery;
+import com.example.Recipes.DB.business.RecipeSummary;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("unit")
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(IngredientDictionary.class)
+class RecipeRepositoryTest {
+    @Autowired
+    RecipeRepository recipeRepository;
+
+    @Autowired
+    TestEntityManager testEntityManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    IngredientDictionary ingredientDictionary;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5, 50})
+    void givenManyRecipes_whenSearchByCategory_thenConstantNumberOfStatements(int numberOfRecipes) {
+        seed(numberOfRecipes);
+
+        List<Recipe> result = recipeRepository.findByCategoryIgnoreCaseOrderByDateDesc("beverage");
+        int rows = touchCollections(result);
+
+        assertEquals(numberOfRecipes, result.size());
+        assertEquals(numberOfRecipes * 5, rows);
+        assertEquals(3, statistics().getPrepareStatementCount());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5, 50})
+    void givenManyRecipes_whenSearchByName_thenConstantNumberOfStatements(int numberOfRecipes) {
+        seed(numberOfRecipes);
+
+        List<Recipe> result = recipeRepository.findByNameContainingIgnoreCaseOrderByDateDesc("mint");
+        touchCollections(result);
+
+        assertEquals(numberOfRecipes, result.size());
+        assertEquals(3, statistics().getPrepareStatementCount());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5, 50})
+    void givenManyRecipes_whenSummariesByCategory_thenSingleStatementInOrder(int numberOfRecipes) {
+        seed(numberOfRecipes);
+
+        List<RecipeSummary> result = recipeRepository.findSummariesByCategory("beverage");
+
+        assertEquals(numberOfRecipes, result.size());
+        // Newest first and, for recipes sharing a date, the higher id first
+        assertEquals(result.stream().sorted(Comparator.comparing(RecipeSummary::date)
+                .thenComparing(RecipeSummary::id).reversed()).toList(), result);
+        assertEquals("Fresh Mint Tea " + (numberOfRecipes > 1 ? 1 : 0), result.get(0).name());
+        assertEquals(1, statistics().getPrepareStatementCount());
+        assertEquals(0, statistics().getCollectionLoadCount());
+    }
+
+    @Test
+    void givenRecipesSharingDates_whenPagingWithKeyset_thenReturnEveryRecipeOnceInOrder() {
+        seed(7);
+        List<Recipe> all = new ArrayList<>();
+
+        List<Recipe> page = recipeRepository.findByCategoryIgnoreCaseOrderByDateDescIdDesc("beverage",
+                PageRequest.of(0, 3));
+        while (!page.isEmpty()) {
+            all.addAll(page);
+            Recipe last = page.get(page.size() - 1);
+            page = recipeRepository.findByCategoryAfter("beverage", last.getDate(), last.getId(), PageRequest.of(0, 3));
+        }
+
+        assertEquals(7, all.size());
+        assertEquals(7, all.stream().map(Recipe::getId).distinct().count());
+        for (int i = 1; i < all.size(); i++) {
+            Recipe previous = all.get(i - 1);
+            Recipe current = all.get(i);
+            assertTrue(previous.getDate().isAfter(current.getDate())
+                    || (previous.getDate().isEqual(current.getDate()) && previous.getId() > current.getId()));
+        }
+    }
+
+    @Test
+    void givenRecipes_whenPagingByNameWithKeyset_thenStartAfterCursor() {
+        seed(4);
+        List<Recipe> first = recipeRepository.findByNameContainingIgnoreCaseOrderByDateDescIdDesc("MINT",
+                PageRequest.of(0, 2));
+        Recipe last = first.get(1);
+
+        List<Recipe> second = recipeRepository.findByNameAfter("MINT", last.getDate(), last.getId(), PageRequest.of(0, 2));
+
+        assertEquals(2, second.size());
+        assertTrue(second.stream().noneMatch(recipe -> first.stream().anyMatch(r -> r.getId() == recipe.getId())));
+    }
+
+    @Test
+    void givenWildcardsInName_whenPagingByNameWithKeyset_thenMatchThemLiterally() {
+        AppUser appUser = testEntityManager.persist(new AppUser("test@test.com", "password1", null));
+        LocalDateTime base = LocalDateTime.of(2023, 1, 1, 12, 0);
+        for (String name : List.of("100% Juice", "Apple Juice", "Mint_Tea", "Mint Tea")) {
+            persist(new Recipe(0, name, "Beverage", base, "Fresh", new ArrayList<>(List.of("water")),
+                    new ArrayList<>(List.of("Pour")), appUser));
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        assertEquals(List.of("100% Juice"), recipeRepository.findByNameAfter("%", base.plusDays(1), 0,
+                PageRequest.of(0, 10)).stream().map(Recipe::getName).toList());
+        assertEquals(List.of("Mint_Tea"), recipeRepository.findByNameAfter("t_t", base.plusDays(1), 0,
+                PageRequest.of(0, 10)).stream().map(Recipe::getName).toList());
+    }
+
+    @Test
+    void givenWildcardsInName_whenSummariesByName_thenMatchThemLiterally() {
+        AppUser appUser = testEntityManager.persist(new AppUser("test@test.com", "password1", null));
+        for (String name : List.of("100% Juice", "Apple Juice", "Mint_Tea", "Mint Tea")) {
+            persist(new Recipe(0, name, "Beverage", LocalDateTime.of(2023, 1, 1, 12, 0), "Fresh",
+                    new ArrayList<>(List.of("water")), new ArrayList<>(List.of("Pour")), appUser));
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        assertEquals(List.of("100% Juice"),
+                recipeRepository.findSummariesByName("%").stream().map(RecipeSummary::name).toList());
+        assertEquals(List.of("Mint_Tea"),
+                recipeRepository.findSummariesByName("T_T").stream().map(RecipeSummary::name).toList());
+    }
+
+    @Test
+    void givenSeveralCriteria_whenFindAllMatching_thenEveryCriterionApplies() {
+        seedAuthorsAndCategories();
+        RecipeSearchQuery searchQuery = new RecipeSearchQuery("DESSERT", "cake", "sugar",
+                LocalDateTime.of(2023, 1, 2, 0, 0), null, "alice@test.com");
+
+        List<Recipe> result = recipeRepository.findAll(RecipeSpecifications.matching(searchQuery, ingredientDictionary),
+                Sort.by(Sort.Order.desc("date"), Sort.Order.desc("id")));
+
+        assertEquals(List.of("Lemon Cake 3", "Lemon Cake 2", "Lemon Cake 1"), result.stream().map(Recipe::getName).toList());
+    }
+
+    @Test
+    void givenIngredientMatchingTwice_whenFindAllMatching_thenReturnRecipeOnce() {
+        seedAuthorsAndCategories();
+        RecipeSearchQuery searchQuery = new RecipeSearchQuery(null, null, "lemons or water", null, null,
+                "bob@test.com");
+
+        List<Recipe> result = recipeRepository.findAll(RecipeSpecifications.matching(searchQuery, ingredientDictionary));
+
+        assertEquals(8, result.size());
+    }
+
+    @Test
+    void whenFilteringByAuthorAndDate_thenPlanUsesCompositeIndex() {
+        seedAuthorsAndCategories();
+        assertThat(plan("select * from recipe where added_by = 'alice@test.com' " +
+                "and date >= timestamp '2023-01-02 00:00:00' order by date desc"))
+                .contains("IDX_RECIPE_ADDED_BY_DATE");
+        // Without a date either index on added_by serves the lookup equally well, and H2 may pick the foreign key's
+        assertThat(plan("select * from recipe where lower(category) = 'dessert' and added_by = 'alice@test.com'"))
+                .contains(": ADDED_BY = 'ALICE@TEST.COM' */")
+                .doesNotContain("TABLESCAN");
+    }
+
+    @Test
+    void whenFilteringByDateRange_thenPlanUsesDateIndex() {
+        seedAuthorsAndCategories();
+        assertThat(plan("select * from recipe where date between timestamp '2023-01-02 00:00:00' " +
+                "and timestamp '2023-01-03 00:00:00'"))
+                .contains("IDX_RECIPE_DATE");
+    }
+
+    @Test
+    void givenRecipesSharingIngredient_whenFindByIngredientName_thenSingleStatementIgnoringCase() {
+        seedAuthorsAndCategories();
+        statistics().clear();
+
+        List<Recipe> result = recipeRepository.findByIngredientName("SUGAR");
+
+        assertEquals(1, statistics().getPrepareStatementCount());
+        assertEquals(8, result.size());
+        assertTrue(result.stream().allMatch(recipe -> recipe.getName().startsWith("Lemon Cake")));
+        assertTrue(result.get(0).getDate().isAfter(result.get(result.size() - 1).getDate()));
+        assertEquals(8, recipeRepository.findSummariesByIngredientName("sugar").size());
+        assertTrue(recipeRepository.findByIngredientName("suga").isEmpty());
+    }
+
+    @Test
+    void givenInternedIngredients_whenLoaded_thenKeepOrderAndShareRows() {
+        seedAuthorsAndCategories();
+
+        List<Recipe> result = recipeRepository.findByCategoryIgnoreCaseOrderByDateDesc("dessert");
+
+        assertEquals(List.of("sugar", "lemons", "eggs"), result.get(0).getIngredients());
+        assertEquals(result.get(0).getIngredientEntries().get(0).getId(),
+                result.get(1).getIngredientEntries().get(0).getId());
+    }
+
+    @Test
+    void whenFilteringByIngredientId_thenPlanUsesJoinTableIndex() {
+        seedAuthorsAndCategories();
+        assertThat(plan("select recipe_id from recipe_ingredient where ingredient_id = 1"))
+                .contains("IDX_RECIPE_INGREDIENT_INGREDIENT_ID");
+    }
+
+    @Test
+    void whenLoadingDirections_thenPlanUsesCollectionTableIndex() {
+        seedAuthorsAndCategories();
+        // The foreign key's index is the same as idx_recipe_directions_recipe_id, H2 may use either
+        assertThat(plan("select * from recipe_directions where recipe_id in (1, 2, 3)"))
+                .contains("RECIPE_ID IN(1, 2, 3) */")
+                .doesNotContain("TABLESCAN");
+    }
+
+    private String plan(String sql) {
+        return new JdbcTemplate(dataSource).queryForObject("explain " + sql, String.class).toUpperCase();
+    }
+
+    private void seedAuthorsAndCategories() {
+        AppUser alice = testEntityManager.persist(new AppUser("alice@test.com", "password1", null));
+        AppUser bob = testEntityManager.persist(new AppUser("bob@test.com", "password1", null));
+        LocalDateTime base = LocalDateTime.of(2023, 1, 1, 12, 0);
+        for (int i = 0; i < 4; i++) {
+            for (AppUser appUser : List.of(alice, bob)) {
+                persist(new Recipe(0, "Lemon Cake " + i, "Dessert", base.plusDays(i), "Zesty",
+                        new ArrayList<>(List.of("sugar", "lemons", "eggs")),
+                        new ArrayList<>(List.of("Bake")), appUser));
+                persist(new Recipe(0, "Lemonade " + i, "Beverage", base.plusDays(i), "Fresh",
+                        new ArrayList<>(List.of("water", "lemons")),
+                        new ArrayList<>(List.of("Mix")), appUser));
+            }
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+
+    private void seed(int numberOfRecipes) {
+        AppUser appUser = testEntityManager.persist(new AppUser("test@test.com", "password1", null));
+        LocalDateTime base = LocalDateTime.of(2023, 1, 1, 12, 0);
+        for (int i = 0; i < numberOfRecipes; i++) {
+            // Every two recipes share a date so the id tie-breaker is exercised too
+            persist(new Recipe(0, "Fresh Mint Tea " + i, "Beverage", base.minusMinutes(i / 2),
+                    "Light and refreshing",
+                    new ArrayList<>(List.of("boiled water", "honey", "fresh mint leaves")),
+                    new ArrayList<>(List.of("Boil water", "Add fresh mint leaves")), appUser));
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+        statistics().clear();
+    }
+
+    // Ingredients are only written through the rows IngredientDictionary assigns
+    private void persist(Recipe recipe) {
+        ingredientDictionary.intern(recipe);
+        testEntityManager.persist(recipe);
+    }
+
+    private int touchCollections(List<Recipe> recipes) {
+        int rows = 0;
+        for (Recipe recipe : recipes) {
+            rows += recipe.getIngredients().size() + recipe.getDirections().size();
+        }
+        return rows;
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.Recipes.DB.persistence;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("unit")
+class SchemaMigrationTest {
+    DataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+    // Same locations and baseline as in application.properties
+    private Flyway flyway(String target) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .target(target)
+                .load();
+    }
+
+    @Test
+    void givenIngredientsOfElementCollection_whenMigrate_thenMoveThemToDictionaryInOrder() {
+        flyway("1").migrate();
+        jdbcTemplate.update("insert into app_user (email, password) values ('test@test.com', 'password1')");
+        jdbcTemplate.update("insert into recipe (id, name, category, description, added_by) " +
+                "values (1, 'Mint Tea', 'Beverage', 'Fresh', 'test@test.com'), " +
+                "(2, 'Mojito', 'Beverage', 'Strong', 'test@test.com')");
+        jdbcTemplate.update("insert into recipe_ingredients (recipe_id, ingredients) " +
+                "values (1, 'water'), (2, 'rum'), (1, 'fresh mint'), (2, 'fresh mint')");
+
+        flyway("latest").migrate();
+
+        assertEquals(List.of("fresh mint", "rum", "water"),
+                jdbcTemplate.queryForList("select name from ingredient order by name", String.class));
+        // In the order the rows were written, as Hibernate read them
+        assertEquals(List.of("water", "fresh mint"), ingredientsOf(1));
+        assertEquals(List.of("rum", "fresh mint"), ingredientsOf(2));
+        assertEquals(List.of(0, 1), jdbcTemplate.queryForList(
+                "select position from recipe_ingredient where recipe_id = 2 order by position", Integer.class));
+        assertFalse(tableExists("recipe_ingredients"));
+    }
+
+    @Test
+    void givenDatabaseOfOriginalSchema_whenMigrate_thenBaselineAndContinueIdsAboveExistingOnes() {
+        // As ddl-auto=update created it from the first entities: IDENTITY ids, ingredients as an element collection
+        jdbcTemplate.execute("create table app_user (email varchar(255) not null, password varchar(255), " +
+                "primary key (email))");
+        jdbcTemplate.execute("create table recipe (id bigint generated by default as identity, category varchar(255), " +
+                "date timestamp(6), description varchar(255), name varchar(255), added_by varchar(255), " +
+                "primary key (id), foreign key (added_by) references app_user)");
+        jdbcTemplate.execute("create table recipe_directions (recipe_id bigint not null, directions varchar(255), " +
+                "foreign key (recipe_id) references recipe)");
+        jdbcTemplate.execute("create table recipe_ingredients (recipe_id bigint not null, ingredients varchar(255), " +
+                "foreign key (recipe_id) references recipe)");
+        jdbcTemplate.update("insert into app_user (email, password) values ('test@test.com', 'password1')");
+        for (int i = 0; i < 120; i++) {
+            jdbcTemplate.update("insert into recipe (name, category, description, added_by) " +
+                    "values ('Mint Tea', 'Beverage', 'Fresh', 'test@test.com')");
+        }
+        jdbcTemplate.update("insert into recipe_ingredients (recipe_id, ingredients) values (120, 'water')");
+        jdbcTemplate.update("insert into recipe_directions (recipe_id, directions) values (120, 'Boil water')");
+
+        Flyway flyway = flyway("latest");
+        flyway.migrate();
+
+        assertEquals("5", flyway.info().current().getVersion().getVersion());
+        assertEquals(List.of("water"), ingredientsOf(120));
+        assertFalse(tableExists("recipe_ingredients"));
+        // Hibernate takes ids from (value - 49) to the value returned, none of which may be taken
+        long firstId = jdbcTemplate.queryForObject("select next value for recipe_seq", Long.class) - 49;
+        assertTrue(firstId > 120, "First id: " + firstId);
+        jdbcTemplate.update("insert into recipe (id, name, category, description, added_by) " +
+                "values (?, 'Lemon Tea', 'Beverage', 'Sour', 'test@test.com')", firstId);
+        assertEquals(121, jdbcTemplate.queryForObject("select count(*) from recipe", Integer.class));
+    }
+
+    @Test
+    void givenSchemaOfDdlAutoUpdateWithDictionary_whenMigrate_thenBaselineAndApplyTheRest() {
+        jdbcTemplate.execute("create sequence recipe_seq start with 1 increment by 50");
+        jdbcTemplate.execute("create table app_user (email varchar(255) not null primary key, password varchar(255))");
+        jdbcTemplate.execute("create table recipe (id bigint primary key, name varchar(255), category varchar(255), " +
+                "date timestamp(6), description varchar(255), added_by varchar(255))");
+        jdbcTemplate.execute("create table recipe_directions (recipe_id bigint not null, directions varchar(255))");
+        jdbcTemplate.execute("create table ingredient (id bigint generated by default as identity primary key, " +
+                "name varchar(255) not null unique)");
+        jdbcTemplate.execute("create table recipe_ingredient (recipe_id bigint not null, position integer not null, " +
+                "ingredient_id bigint not null, primary key (recipe_id, position))");
+        jdbcTemplate.update("insert into ingredient (name) values ('water')");
+
+        Flyway flyway = flyway("latest");
+        flyway.migrate();
+
+        assertEquals("5", flyway.info().current().getVersion().getVersion());
+        assertEquals(List.of("water"), jdbcTemplate.queryForList("select name from ingredient", String.class));
+        assertFalse(tableExists("recipe_ingredients"));
+    }
+
+    private List<String> ingredientsOf(long recipeId) {
+        return jdbcTemplate.queryForList("select i.name from recipe_ingredient ri " +
+                "join ingredient i on i.id = ri.ingredient_id where ri.recipe_id = ? order by ri.position",
+                String.class, recipeId);
+    }
+
+    private boolean tableExists(String table) {
+        return jdbcTemplate.queryForObject("select count(*) from information_schema.tables " +
+                "where lower(table_name) = ?", Integer.class, table) > 0;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.Recipes.DB.persistence;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("unit")
+class TrigramIndexTest {
+    TrigramIndex trigramIndex = new TrigramIndex();
+
+    @Test
+    void whenSearch_thenReturnOnlyNamesContainingTermMostSimilarFirst() {
+        trigramIndex.put(1, "Peppermint Tea");
+        trigramIndex.put(2, "Mint");
+        trigramIndex.put(3, "Mango Lassi");
+        trigramIndex.put(4, "Mint Julep");
+
+        List<Long> ids = trigramIndex.search("MINT").stream().map(TrigramIndex.Match::id).toList();
+
+        assertEquals(List.of(2L, 4L, 1L), ids);
+    }
+
+    @Test
+    void givenShortTerm_whenSearch_thenStillMatchSubstrings() {
+        trigramIndex.put(1, "Mint Julep");
+        trigramIndex.put(2, "Mango Lassi");
+
+        assertEquals(List.of(1L), trigramIndex.search("ju").stream().map(TrigramIndex.Match::id).toList());
+    }
+
+    @Test
+    void givenRenamedOrRemovedRecipe_whenSearch_thenIndexIsUpToDate() {
+        trigramIndex.put(1, "Mint Julep");
+        trigramIndex.put(2, "Mint Tea");
+        trigramIndex.put(1, "Mango Lassi");
+        trigramIndex.remove(2);
+
+        assertTrue(trigramIndex.search("mint").isEmpty());
+        assertEquals(1, trigramIndex.search("lassi").size());
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.Recipes.DB.persistence;
+
+import com.example.Recipes.DB.business.AppUser;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("unit")
+@DataJpaTest
+class UserRepositoryTest {
+    @Autowired
+    UserRepository userRepository;
+
+    @Test
+    void givenNewEmail_whenInsertIfAbsent_thenInsert() {
+        assertEquals(1, userRepository.insertIfAbsent("test@gmail.com", "hash1"));
+        assertEquals("hash1", userRepository.findById("test@gmail.com").map(AppUser::getPassword).orElseThrow());
+    }
+
+    @Test
+    void givenEmailTaken_whenInsertIfAbsent_thenKeepExistingUser() {
+        userRepository.insertIfAbsent("test@gmail.com", "hash1");
+
+        assertEquals(0, userRepository.insertIfAbsent("test@gmail.com", "hash2"));
+        assertEquals("hash1", userRepository.findById("test@gmail.com").map(AppUser::getPassword).orElseThrow());
+        assertEquals(1, userRepository.count());
+    }
+}
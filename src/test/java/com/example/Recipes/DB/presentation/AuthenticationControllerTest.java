@@ -2,8 +2,10 @@ package com.example.Recipes.DB.presentation;
 
 import com.example.Recipes.DB.business.AppUser;
 import com.example.Recipes.DB.business.AppUserService;
+import com.example.Recipes.DB.business.AppUserService.RegistrationResult;
 import com.example.Recipes.DB.business.RecipeService;
 import com.example.Recipes.DB.business.SecurityConfig;
+import com.example.Recipes.DB.business.TokenService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
@@ -12,18 +14,25 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 
 @ExtendWith(SpringExtension.class)
-@WebMvcTest
+@WebMvcTest(AuthenticationController.class)
 @Import(SecurityConfig.class)
 @Tag("unit")
 public class AuthenticationControllerTest {
@@ -39,23 +48,50 @@ public class AuthenticationControllerTest {
     @Autowired
     ObjectMapper objectMapper;
 
+    @Autowired
+    TokenService tokenService;
+
     @Test
     void whenValidUserRegistration_thenSucceed() throws Exception {
         // Given
         AppUser appUser = new AppUser("test@gmail.com", "password1", null);
-        when(appUserService.add(any())).thenReturn(true);
+        when(appUserService.add(any())).thenReturn(CompletableFuture.completedFuture(RegistrationResult.SUCCESS));
 
         // When
-        ResultActions response = mvc.perform(post("/api/register")
-                .contentType(MediaType.APPLICATION_JSON_VALUE)
-                .characterEncoding("utf-8")
-                .content("{\"email\":\"" + appUser.getEmail() + "\",\"password\":\"" + appUser.getPassword() + "\"}"));
+        ResultActions response = register(appUser);
 
         // Then
         response.andExpect(MockMvcResultMatchers.status().isOk());
         verify(appUserService).add(appUser);
     }
 
+    @Test
+    void whenExistingUserRegistration_thenFail() throws Exception {
+        // Given
+        AppUser appUser = new AppUser("test@gmail.com", "password1", null);
+        when(appUserService.add(any())).thenReturn(CompletableFuture.completedFuture(RegistrationResult.ALREADY_EXISTS));
+
+        // When
+        ResultActions response = register(appUser);
+
+        // Then
+        response.andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    void givenHashingOverloaded_whenUserRegistration_thenTooManyRequests() throws Exception {
+        // Given
+        AppUser appUser = new AppUser("test@gmail.com", "password1", null);
+        when(appUserService.add(any())).thenReturn(CompletableFuture.completedFuture(RegistrationResult.OVERLOADED));
+
+        // When
+        ResultActions response = register(appUser);
+
+        // Then
+        response.andExpect(MockMvcResultMatchers.status().isTooManyRequests())
+                .andExpect(MockMvcResultMatchers.header().string("Retry-After", "1"));
+    }
+
     @Test
     void whenInvalidUserAuthenticating_thenFail() throws Exception {
         // Given
@@ -72,4 +108,40 @@ public class AuthenticationControllerTest {
         response.andExpect(MockMvcResultMatchers.status().isBadRequest());
         verify(appUserService, never()).add(any());
     }
+
+    @Test
+    @WithMockUser(value = "test@gmail.com", password = "password1")
+    void givenAuthenticatedUser_whenLogin_thenReturnTokenForUser() throws Exception {
+        // When
+        MvcResult result = mvc.perform(post("/api/login"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.expiresIn").isNumber())
+                .andReturn();
+
+        // Then
+        String token = objectMapper.readTree(result.getResponse().getContentAsString()).get("token").asText();
+        assertEquals("test@gmail.com", tokenService.verify(token));
+    }
+
+    @Test
+    void givenOnlyBearerToken_whenLogin_thenUnauthorised() throws Exception {
+        // Given
+        String token = tokenService.issue("test@gmail.com").token();
+
+        // When
+        ResultActions response = mvc.perform(post("/api/login").header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+
+        // Then
+        response.andExpect(MockMvcResultMatchers.status().isUnauthorized());
+    }
+
+    private ResultActions register(AppUser appUser) throws Exception {
+        MvcResult result = mvc.perform(post("/api/register")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .characterEncoding("utf-8")
+                        .content("{\"email\":\"" + appUser.getEmail() + "\",\"password\":\"" + appUser.getPassword() + "\"}"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        return mvc.perform(asyncDispatch(result));
+    }
 }
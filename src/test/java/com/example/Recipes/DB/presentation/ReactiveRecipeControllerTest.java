@@ -0,0 +1,86 @@
+package com.example.Recipes.DB.presentation;
+
+import com.example.Recipes.DB.business.*;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = ReactiveRecipeController.class, properties = "recipes.reactive.enabled=true")
+@Import(SecurityConfig.class)
+@Tag("unit")
+class ReactiveRecipeControllerTest {
+    @Autowired
+    MockMvc mvc;
+
+    @MockBean
+    ReactiveRecipeService reactiveRecipeService;
+
+    @MockBean
+    AppUserService appUserService;
+
+    List<Recipe> listOfRecipes = List.of(
+            new Recipe(1, "Mint Julep", "Beverage", LocalDateTime.now(), "Light, aromatic and refreshing",
+                    new ArrayList<>(List.of("bourbon", "fresh mint leaves")), new ArrayList<>(List.of("Mix")), null),
+            new Recipe(2, "Peppermint Tea", "Beverage", LocalDateTime.now(), "Yummy",
+                    new ArrayList<>(List.of("peppermint")), new ArrayList<>(List.of("Brew")), null));
+
+    @Test
+    @WithMockUser(value = "test@gmail.com", password = "password1")
+    void givenRecipeExists_whenGet_thenReturnRecipe() throws Exception {
+        when(reactiveRecipeService.get(1)).thenReturn(Mono.just(listOfRecipes.get(0)));
+        MvcResult result = mvc.perform(get("/api/reactive/recipe/1")).andExpect(request().asyncStarted()).andReturn();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Mint Julep"));
+    }
+
+    @Test
+    @WithMockUser(value = "test@gmail.com", password = "password1")
+    void givenRecipeDoesNotExist_whenGet_thenReturnNotFound() throws Exception {
+        when(reactiveRecipeService.get(anyLong())).thenReturn(Mono.empty());
+        MvcResult result = mvc.perform(get("/api/reactive/recipe/1")).andExpect(request().asyncStarted()).andReturn();
+        mvc.perform(asyncDispatch(result)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(value = "test@gmail.com", password = "password1")
+    void whenSearchByCategory_thenStreamOneRecipePerLine() throws Exception {
+        when(reactiveRecipeService.search("beverage", RecipeService.SearchCriterion.CATEGORY))
+                .thenReturn(Flux.fromIterable(listOfRecipes));
+        MvcResult result = mvc.perform(get("/api/reactive/recipe/search").param("category", "Beverage")
+                        .accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(2, body.lines().count());
+    }
+
+    @Test
+    void givenUnauthorisedUser_whenSearch_thenReturnUnauthorized() throws Exception {
+        mvc.perform(get("/api/reactive/recipe/search").param("category", "Beverage"))
+                .andExpect(status().isUnauthorized());
+        verify(reactiveRecipeService, never()).search(anyString(), any());
+    }
+}
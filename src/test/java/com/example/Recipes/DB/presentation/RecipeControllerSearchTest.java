@@ -0,0 +1,72 @@
+package com.example.Recipes.DB.presentation;
+
+import com.example.Recipes.DB.business.AppUser;
+import com.example.Recipes.DB.business.AppUserService;
+import com.example.Recipes.DB.business.Recipe;
+import com.example.Recipes.DB.business.RecipeService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Ingredient searches on their own are answered by the search index and composed ones by the database, so this runs
+// both against a real server on an in-memory H2
+@Tag("unit")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:search;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="})
+class RecipeControllerSearchTest {
+    static final String EMAIL = "search@test.com";
+    static final String PASSWORD = "password1";
+
+    @Autowired
+    TestRestTemplate restTemplate;
+
+    @Autowired
+    AppUserService appUserService;
+
+    @Autowired
+    RecipeService recipeService;
+
+    @Test
+    void givenIngredientWithOtherCriterion_whenSearch_thenSameMatchesAsIngredientAlone() {
+        appUserService.add(new AppUser(EMAIL, PASSWORD, null)).join();
+        add("Salt Crusted Fish", "whole sea bass", "coarse salt");
+        add("Shortbread", "unsalted butter", "flour");
+        add("Salted Caramel", "sugar", "salt, to taste");
+        add("Herb Salad", "basil", "salt-free dressing");
+
+        List<String> alone = names("/api/recipe/search?ingredient=salt");
+
+        assertEquals(List.of("Herb Salad", "Salt Crusted Fish", "Salted Caramel"), alone);
+        assertEquals(alone, names("/api/recipe/search?ingredient=salt&author=" + EMAIL));
+        assertEquals(alone, names("/api/recipe/search?ingredient=salt&from=2000-01-01T00:00:00"));
+        assertEquals(names("/api/recipe/search?ingredient=butter or coarse salt"),
+                names("/api/recipe/search?ingredient=butter or coarse salt&author=" + EMAIL));
+    }
+
+    private void add(String name, String... ingredients) {
+        recipeService.add(new Recipe(0, name, "Any", null, "Tasty", new ArrayList<>(List.of(ingredients)),
+                new ArrayList<>(List.of("Cook")), appUserService.get(EMAIL)), false);
+    }
+
+    private List<String> names(String path) {
+        ResponseEntity<List<Map<String, Object>>> response = restTemplate.withBasicAuth(EMAIL, PASSWORD)
+                .exchange(path, HttpMethod.GET, null, new ParameterizedTypeReference<>() { });
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        return response.getBody().stream().map(recipe -> (String) recipe.get("name")).sorted().toList();
+    }
+}
@@ -2,9 +2,13 @@ package com.example.Recipes.DB.presentation;
 
 import com.example.Recipes.DB.business.*;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -13,10 +17,12 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
@@ -24,13 +30,21 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(SpringExtension.class)
@@ -50,9 +64,15 @@ public class RecipeControllerTest {
     @MockBean
     AppUserService appUserService;
 
+    @MockBean
+    RecipeImportService recipeImportService;
+
     @Autowired
     ObjectMapper objectMapper;
 
+    @Autowired
+    TokenService tokenService;
+
     List<Recipe> listOfRecipes = Arrays.asList(
             new Recipe(0, "Mint Julep", "Beverage", LocalDateTime.now(),
                     "Light, aromatic and refreshing beverage, ...",
@@ -67,7 +87,7 @@ public class RecipeControllerTest {
 
     static HttpHeaders getDefaultHeaders() {
         HttpHeaders responseHeaders = new HttpHeaders();
-        responseHeaders.set("Content-Type", "application/json");
+        responseHeaders.setVary(List.of(HttpHeaders.ACCEPT));
         return responseHeaders;
     }
 
@@ -79,12 +99,108 @@ public class RecipeControllerTest {
         verify(recipeService, never()).get(anyLong());
     }
 
+    @Test
+    void givenBearerToken_whenGet_thenReturnRecipeWithoutLoadingUser() throws Exception {
+        when(recipeService.get(anyLong())).thenReturn(listOfRecipes.get(1));
+        String token = tokenService.issue("test@gmail.com").token();
+        mvc.perform(get("/api/recipe/1").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+        verify(appUserService, never()).loadUserByUsername(any());
+    }
+
+    @Test
+    void givenTamperedBearerToken_whenGet_thenReturnUnauthorised() throws Exception {
+        String token = tokenService.issue("test@gmail.com").token();
+        mvc.perform(get("/api/recipe/1").header(HttpHeaders.AUTHORIZATION, "Bearer " + token + "x"))
+                .andExpect(status().isUnauthorized());
+        verify(recipeService, never()).get(anyLong());
+    }
+
     @Test
     @WithMockUser(value = "test@gmail.com", password = "password1")
     public void givenRecipeExists_whenGet_thenReturnRecipe() throws Exception {
         when(recipeService.get(anyLong())).thenReturn(listOfRecipes.get(1));
         mvc.perform(get("/api/recipe/1")).andExpect(status().isOk());
-        assertThat(recipeController.getRecipe(1).getBody()).isSameAs(listOfRecipes.get(1));
+        assertThat(recipeController.getRecipe(1, new MockHttpServletRequest()).getBody()).isSameAs(listOfRecipes.get(1));
+    }
+
+    @Test
+    @WithMockUser(value = "test@gmail.com", password = "password1")
+    void givenNoAccept_whenGet_thenReturnJson() throws Exception {
+        when(recipeService.get(1L)).thenReturn(listOfRecipes.get(1));
+        mvc.perform(get("/api/recipe/1"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"application/cbor", "application/x-jackson-smile"})
+    @WithMockUser(value = "test@gmail.com", password = "password1")
+    void givenBinaryAccept_whenGet_thenReturnRecipeInThatFormat(String mediaType) throws Exception {
+        when(recipeService.get(1L)).thenReturn(listOfRecipes.get(1));
+        byte[] body = mvc.perform(get("/api/recipe/1").accept(mediaType))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(mediaType))
+                .andReturn().getResponse().getContentAsByteArray();
+        ObjectMapper mapper = mediaType.equals("application/cbor") ? new CBORMapper() : new SmileMapper();
+        assertEquals("Peppermint Tea", mapper.readTree(body).get("name").asText());
+    }
+
+    @Test
+    @WithMockUser(value = "test@gmail.com", password = "password1")
+    void givenRecipeExists_whenGet_thenReturnETagAndLastModified() throws Exception {
+        Recipe recipe = listOfRecipes.get(1);
+        when(recipeService.get(1L)).thenReturn(recipe);
+        mvc.perform(get("/api/recipe/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, RecipeVersion.of(recipe).eTag("json")))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED));
+        verify(recipeService, never()).getVersion(anyLong());
+    }
+
+    @Test
+    @WithMockUser(value = "test@gmail.com", password = "password1")
+    void givenCborAccepted_whenGet_thenReturnETagOfCborBody() throws Exception {
+        Recipe recipe = listOfRecipes.get(1);
+        when(recipeService.get(1L)).thenReturn(recipe);
+        mvc.perform(get("/api/recipe/1").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, RecipeVersion.of(recipe).eTag("cbor")));
+    }
+
+    @Test
+    @WithMockUser(value = "test@gmail.com", password = "password1")
+    void givenMatchingIfNoneMatch_whenGet_thenReturnNotModifiedWithoutLoadingRecipe() throws Exception {
+        RecipeVersion version = RecipeVersion.of(listOfRecipes.get(1));
+        when(recipeService.getVersion(1L)).thenReturn(version);
+        mvc.perform(get("/api/recipe/1").header(HttpHeaders.IF_NONE_MATCH, version.eTag("json")))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, version.eTag("json")))
+                .andExpect(content().string(""));
+        verify(recipeService, never()).get(anyLong());
+    }
+
+    @Test
+    @WithMockUser(value = "test@gmail.com", password = "password1")
+    void givenStaleIfNoneMatch_whenGet_thenReturnRecipe() throws Exception {
+        Recipe recipe = listOfRecipes.get(1);
+        when(recipeService.getVersion(1L)).thenReturn(RecipeVersion.of(recipe));
+        when(recipeService.get(1L)).thenReturn(recipe);
+        mvc.perform(get("/api/recipe/1").header(HttpHeaders.IF_NONE_MATCH, "\"1-stale\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value(recipe.getName()));
+    }
+
+    @Test
+    @WithMockUser(value = "test@gmail.com", password = "password1")
+    void givenUnchangedSinceIfModifiedSince_whenGet_thenReturnNotModified() throws Exception {
+        RecipeVersion version = RecipeVersion.of(listOfRecipes.get(1));
+        when(recipeService.getVersion(1L)).thenReturn(version);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfModifiedSince(version.lastModified() + 1000);
+        mvc.perform(get("/api/recipe/1").headers(headers)).andExpect(status().isNotModified());
+        verify(recipeService, never()).get(anyLong());
     }
 
     @Test
@@ -92,7 +208,7 @@ public class RecipeControllerTest {
     void givenRecipeDoesNotExist_whenGet_thenFail() throws Exception {
         when(recipeService.get(anyLong())).thenReturn(null);
         mvc.perform(get("/api/recipe/1")).andExpect(status().isNotFound());
-        assertNull(recipeController.getRecipe(1).getBody());
+        assertNull(recipeController.getRecipe(1, new MockHttpServletRequest()).getBody());
     }
 
     @Test
@@ -136,8 +252,8 @@ public class RecipeControllerTest {
     public void givenNotOwner_whenUpdate_thenReturnForbidden() throws Exception {
         // Given
         AppUser appUser = new AppUser("test@gmail.com", "password1", null);
-        when(recipeService.get(anyLong())).thenReturn(listOfRecipes.get(1));
-        when(appUserService.get(anyString())).thenReturn(appUser);
+        when(recipeService.update(anyLong(), any(), anyString(), any())).thenReturn(RecipeService.MutationResult.FORBIDDEN);
+        when(appUserService.getReference(anyString())).thenReturn(appUser);
         String json = objectMapper.writeValueAsString(listOfRecipes.get(1));
 
         // When
@@ -148,6 +264,7 @@ public class RecipeControllerTest {
         // Then
         result.andExpect(status().isForbidden());
         verify(recipeService, never()).add(any(), anyBoolean());
+        verify(recipeService, never()).get(anyLong());
     }
 
     @Test
@@ -155,9 +272,8 @@ public class RecipeControllerTest {
     public void givenOwner_whenUpdate_thenSucceed() throws Exception {
         // Given
         AppUser appUser = new AppUser("test@google.com", "password1", null);
-        when(recipeService.get(anyLong())).thenReturn(listOfRecipes.get(1));
-        when(recipeService.add(any(), anyBoolean())).thenReturn(listOfRecipes.get(1));
-        when(appUserService.get(anyString())).thenReturn(appUser);
+        when(recipeService.update(anyLong(), any(), anyString(), any())).thenReturn(RecipeService.MutationResult.SUCCESS);
+        when(appUserService.getReference(anyString())).thenReturn(appUser);
         String json = objectMapper.writeValueAsString(listOfRecipes.get(1));
 
         // When
@@ -167,7 +283,8 @@ public class RecipeControllerTest {
 
         // Then
         result.andExpect(status().isNoContent());
-        verify(recipeService).add(any(), anyBoolean());
+        verify(recipeService).update(eq(1L), any(), eq("test@google.com"), isNull());
+        verify(recipeService, never()).get(anyLong());
     }
 
     @Test
@@ -175,8 +292,8 @@ public class RecipeControllerTest {
     public void givenRecipeNotFound_whenUpdate_thenReturnNotFound() throws Exception {
         // Given
         AppUser appUser = new AppUser("test@gmail.com", "password1", null);
-        when(recipeService.get(anyLong())).thenReturn(null);
-        when(appUserService.get(anyString())).thenReturn(appUser);
+        when(recipeService.update(anyLong(), any(), anyString(), any())).thenReturn(RecipeService.MutationResult.NOT_FOUND);
+        when(appUserService.getReference(anyString())).thenReturn(appUser);
         String json = objectMapper.writeValueAsString(listOfRecipes.get(1));
 
         // When
@@ -188,85 +305,164 @@ public class RecipeControllerTest {
         result.andExpect(status().isNotFound());
     }
 
+    @Test
+    @WithMockUser(value = "test@google.com", password = "password1")
+    public void givenStaleIfMatch_whenUpdate_thenReturnPreconditionFailed() throws Exception {
+        when(recipeService.update(anyLong(), any(), anyString(), any()))
+                .thenReturn(RecipeService.MutationResult.PRECONDITION_FAILED);
+        String json = objectMapper.writeValueAsString(listOfRecipes.get(1));
+
+        mvc.perform(put("/api/recipe/1")
+                        .header(HttpHeaders.IF_MATCH, "\"1-stale\"")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .content(json))
+                .andExpect(status().isPreconditionFailed());
+        verify(recipeService).update(eq(1L), any(), eq("test@google.com"), eq("\"1-stale\""));
+    }
+
     @Test
     void givenUnauthorisedUser_whenDelete_thenReturnForbidden() throws Exception {
         // Given
-        when(recipeService.delete(anyLong())).thenReturn(true);
+        when(recipeService.delete(anyLong(), anyString())).thenReturn(RecipeService.MutationResult.SUCCESS);
 
         // When
         ResultActions result = mvc.perform(delete("/api/recipe/1"));
 
         // Then
         result.andExpect(MockMvcResultMatchers.status().isUnauthorized());
-        verify(recipeService, never()).delete(anyLong());
+        verify(recipeService, never()).delete(anyLong(), anyString());
     }
 
     @Test
     @WithMockUser(value = "test@hotmail.com", password = "password1")
     void givenNotOwner_whenDelete_thenReturnForbidden() throws Exception {
         // Given
-        when(recipeService.delete(anyLong())).thenReturn(true);
-        when(recipeService.get(anyLong())).thenReturn(listOfRecipes.get(1));
+        when(recipeService.delete(anyLong(), anyString())).thenReturn(RecipeService.MutationResult.FORBIDDEN);
 
         // When
         ResultActions result = mvc.perform(delete("/api/recipe/1"));
 
         // Then
         result.andExpect(MockMvcResultMatchers.status().isForbidden());
-        verify(recipeService, never()).delete(anyLong());
+        verify(recipeService).delete(1L, "test@hotmail.com");
+        verify(recipeService, never()).get(anyLong());
     }
 
     @Test
     @WithMockUser(value = "test@hotmail.com", password = "password1")
     void givenRecipeNotFound_whenDelete_thenReturnNotFound() throws Exception {
         // Given
-        when(recipeService.get(anyLong())).thenReturn(null);
+        when(recipeService.delete(anyLong(), anyString())).thenReturn(RecipeService.MutationResult.NOT_FOUND);
 
         // When
         ResultActions result = mvc.perform(delete("/api/recipe/1"));
 
         // Then
         result.andExpect(MockMvcResultMatchers.status().isNotFound());
-        verify(recipeService, never()).delete(anyLong());
+        verify(recipeService, never()).get(anyLong());
     }
 
     @Test
     @WithMockUser(value = "test@google.com", password = "password1")
     public void givenOwner_whenDelete_thenSucceed() throws Exception {
         // Given
-        when(recipeService.get(anyLong())).thenReturn(listOfRecipes.get(1));
-        when(recipeService.delete(anyLong())).thenReturn(anyBoolean());
+        when(recipeService.delete(anyLong(), anyString())).thenReturn(RecipeService.MutationResult.SUCCESS);
 
         // When
         ResultActions result = mvc.perform(delete("/api/recipe/1"));
 
         // Then
         result.andExpect(status().isNoContent());
-        verify(recipeService).delete(anyLong());
+        verify(recipeService).delete(1L, "test@google.com");
     }
 
     @Test
     void whenSearchByName_thenSucceed() {
         when(recipeService.search("mint", RecipeService.SearchCriterion.NAME)).thenReturn(listOfRecipes);
-        assertEquals(recipeController.searchRecipes(null, "mint"),
+        assertEquals(recipeController.searchRecipes(null, "mint", null, null, null, null, null, null, null),
                 new ResponseEntity<>(listOfRecipes, getDefaultHeaders(), HttpStatus.OK));
     }
 
     @Test
     void givenNoSearchParameters_whenSearch_thenReturnBadRequest() {
         when(recipeService.search("mint", RecipeService.SearchCriterion.NAME)).thenReturn(null);
-        assertEquals(recipeController.searchRecipes(null, null),
+        assertEquals(recipeController.searchRecipes(null, null, null, null, null, null, null, null, null),
                 new ResponseEntity<>(null, getDefaultHeaders(), HttpStatus.BAD_REQUEST));
         verify(recipeService, never()).search(anyString(), any());
     }
 
+    @Test
+    void givenSeveralSearchParameters_whenSearch_thenComposeOneQuery() {
+        RecipeSearchQuery searchQuery = new RecipeSearchQuery("Beverage", "mint", null, null, null, "test@google.com");
+        when(recipeService.search(searchQuery)).thenReturn(listOfRecipes);
+        assertEquals(recipeController.searchRecipes("Beverage", "mint", null, null, null, null, null,
+                        "test@google.com", null),
+                new ResponseEntity<>(listOfRecipes, getDefaultHeaders(), HttpStatus.OK));
+        verify(recipeService, never()).search(anyString(), any());
+    }
+
+    @Test
+    void givenTextCombinedWithOtherParameters_whenSearch_thenReturnBadRequest() {
+        assertEquals(recipeController.searchRecipes("Beverage", null, null, "mint", null, null, null, null, null),
+                new ResponseEntity<>(null, getDefaultHeaders(), HttpStatus.BAD_REQUEST));
+        verify(recipeService, never()).search(any(RecipeSearchQuery.class));
+    }
+
+    @Test
+    void whenSearchUsingIngredient_thenSearchByIngredientName() {
+        when(recipeService.search("fresh mint leaves", RecipeService.SearchCriterion.USES_INGREDIENT))
+                .thenReturn(listOfRecipes);
+        assertEquals(recipeController.searchRecipes(null, null, null, null, "Fresh Mint Leaves", null, null, null,
+                        null),
+                new ResponseEntity<>(listOfRecipes, getDefaultHeaders(), HttpStatus.OK));
+    }
+
+    @Test
+    void givenUsesCombinedWithOtherParameters_whenSearch_thenReturnBadRequest() {
+        assertEquals(recipeController.searchRecipes("Beverage", null, null, null, "honey", null, null, null, null),
+                new ResponseEntity<>(null, getDefaultHeaders(), HttpStatus.BAD_REQUEST));
+        verifyNoInteractions(recipeService);
+    }
+
     @Test
     void givenNotFound_whenSearchByName_thenReturnNotFound() {
         when(recipeService.search("mint", RecipeService.SearchCriterion.NAME)).thenReturn(null);
-        HttpHeaders responseHeaders = new HttpHeaders();
-        responseHeaders.set("Content-Type", "application/json");
-        assertEquals(recipeController.searchRecipes(null, "mint"),
-                new ResponseEntity<>(null, responseHeaders, HttpStatus.NOT_FOUND));
+        assertEquals(recipeController.searchRecipes(null, "mint", null, null, null, null, null, null, null),
+                new ResponseEntity<>(null, getDefaultHeaders(), HttpStatus.NOT_FOUND));
+    }
+
+    @Test
+    @WithMockUser(value = "test@gmail.com", password = "password1")
+    void givenFields_whenSearchByCategory_thenReturnOnlyThoseFieldsOfSummaries() throws Exception {
+        when(recipeService.searchSummaries("beverage", RecipeService.SearchCriterion.CATEGORY)).thenReturn(List.of(
+                new RecipeSummary(1, "Peppermint Tea", "Beverage", LocalDateTime.of(2023, 1, 1, 12, 0))));
+        mvc.perform(get("/api/recipe/search").param("category", "Beverage").param("fields", "id,name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].name").value("Peppermint Tea"))
+                .andExpect(jsonPath("$[0].category").doesNotExist())
+                .andExpect(jsonPath("$[0].ingredients").doesNotExist());
+        verify(recipeService, never()).search(anyString(), any());
+    }
+
+    @Test
+    void givenFields_whenComposedSearch_thenSearchSummaries() {
+        RecipeSearchQuery searchQuery = new RecipeSearchQuery("Beverage", "mint", null, null, null, null);
+        LocalDateTime date = LocalDateTime.of(2023, 1, 1, 12, 0);
+        when(recipeService.searchSummaries(searchQuery))
+                .thenReturn(List.of(new RecipeSummary(1, "Peppermint Tea", "Beverage", date)));
+        assertEquals(recipeController.searchRecipes("Beverage", "mint", null, null, null, null, null, null,
+                        "date, id"),
+                new ResponseEntity<>(List.of(Map.of("date", date, "id", 1L)), getDefaultHeaders(), HttpStatus.OK));
+        verify(recipeService, never()).search(any(RecipeSearchQuery.class));
+    }
+
+    @Test
+    void givenUnknownField_whenSearch_thenReturnBadRequest() {
+        assertEquals(recipeController.searchRecipes("Beverage", null, null, null, null, null, null, null,
+                        "id,ingredients"),
+                new ResponseEntity<>(null, getDefaultHeaders(), HttpStatus.BAD_REQUEST));
+        verifyNoInteractions(recipeService);
     }
 
     @Test
@@ -276,4 +472,108 @@ public class RecipeControllerTest {
         mvc.perform(get("/api/recipe/1")).andExpect(status().isOk());
         verify(recipeService).get(anyLong());
     }
+
+    @Test
+    @WithMockUser(value = "test@gmail.com", password = "password1")
+    void whenSearchPageByCategory_thenReturnPageWithCursor() throws Exception {
+        when(recipeService.searchPage("beverage", RecipeService.SearchCriterion.CATEGORY, null,
+                RecipeService.DEFAULT_PAGE_SIZE)).thenReturn(new RecipePage(listOfRecipes, "next"));
+        mvc.perform(get("/api/recipe/search/page").param("category", "Beverage"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.recipes.length()").value(2))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    @WithMockUser(value = "test@gmail.com", password = "password1")
+    void givenInvalidCursor_whenSearchPage_thenReturnBadRequest() throws Exception {
+        when(recipeService.searchPage(anyString(), any(), anyString(), anyInt()))
+                .thenThrow(new IllegalArgumentException("Invalid search cursor"));
+        mvc.perform(get("/api/recipe/search/page").param("name", "mint").param("cursor", "nonsense"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(value = "test@gmail.com", password = "password1")
+    void whenStreamByCategory_thenWriteOneRecipePerLine() throws Exception {
+        // Given
+        doAnswer(invocation -> {
+            Consumer<Recipe> consumer = invocation.getArgument(2);
+            listOfRecipes.forEach(consumer);
+            return true;
+        }).when(recipeService).export(eq("beverage"), eq(RecipeService.SearchCriterion.CATEGORY), any());
+
+        // When
+        MvcResult result = mvc.perform(get("/api/recipe/search/stream").param("category", "Beverage"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        String body = mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(2, body.lines().count());
+    }
+
+    @Test
+    @WithMockUser(value = "test@gmail.com", password = "password1")
+    void givenBothSearchParameters_whenStream_thenReturnBadRequest() throws Exception {
+        mvc.perform(get("/api/recipe/search/stream").param("category", "Beverage").param("name", "mint"))
+                .andExpect(status().isBadRequest());
+        verify(recipeService, never()).export(anyString(), any(), any());
+    }
+
+    @Test
+    @WithMockUser(value = "test@gmail.com", password = "password1")
+    void givenNdjsonAndJsonArray_whenImport_thenReadEveryRecipe() throws Exception {
+        // Given
+        List<String> names = new ArrayList<>();
+        when(recipeImportService.importRecipes(any(), eq("test@gmail.com"))).thenAnswer(invocation -> {
+            Iterator<Recipe> recipes = invocation.getArgument(0);
+            recipes.forEachRemaining(recipe -> names.add(recipe.getName()));
+            return new RecipeImportResult(2, 0, List.of());
+        });
+        String ndjson = objectMapper.writeValueAsString(listOfRecipes.get(0)) + "\n" +
+                objectMapper.writeValueAsString(listOfRecipes.get(1)) + "\n";
+
+        // When
+        mvc.perform(post("/api/recipe/import").contentType("application/x-ndjson").content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2));
+        mvc.perform(post("/api/recipe/import").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(listOfRecipes)))
+                .andExpect(status().isOk());
+
+        // Then
+        assertEquals(List.of("Mint Julep", "Peppermint Tea", "Mint Julep", "Peppermint Tea"), names);
+        verify(appUserService, never()).get(anyString());
+    }
+
+    @Test
+    @WithMockUser(value = "test@gmail.com", password = "password1")
+    void givenCategory_whenBulkDelete_thenReturnCount() throws Exception {
+        when(recipeService.deleteByCategory("test@gmail.com", "Beverage")).thenReturn(42);
+        mvc.perform(delete("/api/recipe/bulk").param("category", "Beverage"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(42));
+    }
+
+    @Test
+    @WithMockUser(value = "test@gmail.com", password = "password1")
+    void givenIds_whenBulkRecategorize_thenReturnCount() throws Exception {
+        when(recipeService.recategorizeByIds("test@gmail.com", List.of(1L, 2L), "Drinks")).thenReturn(2);
+        mvc.perform(put("/api/recipe/bulk/category").param("category", "Drinks").param("id", "1", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(2));
+    }
+
+    @Test
+    @WithMockUser(value = "test@gmail.com", password = "password1")
+    void givenCategoryAndIds_whenBulkDelete_thenReturnBadRequest() throws Exception {
+        mvc.perform(delete("/api/recipe/bulk").param("category", "Beverage").param("id", "1"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(delete("/api/recipe/bulk")).andExpect(status().isBadRequest());
+        verify(recipeService, never()).deleteByCategory(anyString(), anyString());
+        verify(recipeService, never()).deleteByIds(anyString(), any());
+    }
 }
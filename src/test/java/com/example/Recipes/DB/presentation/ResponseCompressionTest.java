@@ -0,0 +1,86 @@
+package com.example.Recipes.DB.presentation;
+
+import com.example.Recipes.DB.business.AppUser;
+import com.example.Recipes.DB.business.AppUserService;
+import com.example.Recipes.DB.business.Recipe;
+import com.example.Recipes.DB.business.RecipeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Tomcat only compresses responses without a strong ETag, so this runs against a real server on an in-memory H2
+@Tag("unit")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:compression;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="})
+class ResponseCompressionTest {
+    static final String EMAIL = "gzip@test.com";
+    static final String PASSWORD = "password1";
+
+    @Autowired
+    TestRestTemplate restTemplate;
+
+    @Autowired
+    AppUserService appUserService;
+
+    @Autowired
+    RecipeService recipeService;
+
+    long recipeId;
+
+    @BeforeEach
+    void setUp() {
+        appUserService.add(new AppUser(EMAIL, PASSWORD, null)).join();
+        // Large enough to be over server.compression.min-response-size
+        List<String> directions = IntStream.range(0, 80)
+                .mapToObj(i -> "Step " + i + ": stir the fresh mint leaves gently into the water").toList();
+        recipeId = recipeService.add(new Recipe(0, "Fresh Mint Tea", "Beverage", null, "Light and refreshing",
+                new ArrayList<>(List.of("boiled water", "fresh mint leaves")), new ArrayList<>(directions),
+                appUserService.get(EMAIL)), false).getId();
+    }
+
+    @Test
+    void givenGzipAccepted_whenGetRecipe_thenCompressWithWeakETagPerFormat() {
+        ResponseEntity<byte[]> json = get("/api/recipe/" + recipeId, "application/json");
+        ResponseEntity<byte[]> cbor = get("/api/recipe/" + recipeId, "application/cbor");
+
+        assertEquals(HttpStatus.OK, json.getStatusCode());
+        assertEquals("gzip", json.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("gzip", cbor.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(json.getHeaders().getETag().startsWith("W/"));
+        assertNotEquals(json.getHeaders().getETag(), cbor.getHeaders().getETag());
+    }
+
+    @Test
+    void givenGzipAccepted_whenSearch_thenCompressWithWeakETag() {
+        ResponseEntity<byte[]> response = get("/api/recipe/search?category=beverage", "application/json");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(response.getHeaders().getETag().startsWith("W/"));
+    }
+
+    private ResponseEntity<byte[]> get(String path, String accept) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT, accept);
+        headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        return restTemplate.withBasicAuth(EMAIL, PASSWORD)
+                .exchange(path, HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+    }
+}